@@ -0,0 +1,57 @@
+package pepse.benchmarks;
+
+import danogl.gui.rendering.Renderable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pepse.util.ColorSupplier;
+
+import java.awt.*;
+import java.util.Random;
+
+/**
+ * Benchmarks the colors and renderables handed out by ColorSupplier,
+ * with palette mode disabled (0) and enabled.
+ *
+ * @author fanteo12
+ */
+@State(Scope.Thread)
+public class ColorSupplierBenchmark {
+
+    // constants
+    private static final int SEED = 12;
+    private static final Color BASE_COLOR = new Color(50, 200, 30);
+    private static final int COLOR_DELTA = 50;
+
+    @Param({"0", "16"})
+    private int paletteSize;
+
+    private Random random;
+
+    /**
+     * Sets the palette mode and a seeded random generator.
+     */
+    @Setup
+    public void setup() {
+        ColorSupplier.setPaletteSize(paletteSize);
+        random = new Random(SEED);
+    }
+
+    /**
+     * Samples a single color.
+     */
+    @Benchmark
+    public Color approximateColor() {
+        return ColorSupplier.approximateColor(BASE_COLOR, COLOR_DELTA, random);
+    }
+
+    /**
+     * Samples a rectangle renderable.
+     */
+    @Benchmark
+    public Renderable approximateRectangle() {
+        return ColorSupplier.approximateRectangle(BASE_COLOR, COLOR_DELTA, random);
+    }
+}
@@ -0,0 +1,57 @@
+package pepse.benchmarks;
+
+import danogl.util.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pepse.world.Block;
+import pepse.world.Terrain;
+import pepse.world.trees.Flora;
+import pepse.world.trees.Tree;
+
+import java.util.ArrayList;
+
+/**
+ * Benchmarks tree generation of a range.
+ * Every invocation generates the next range to the right, wrapping back to 0 after a fixed period,
+ * so the ground heights the trees stand on are computed again, as they are for a newly loaded chunk.
+ *
+ * @author fanteo12
+ */
+@State(Scope.Thread)
+public class FloraBenchmark {
+
+    // constants
+    private static final int SEED = 12;
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1024, 720);
+    // ranges restart here, long before x loses float precision; see TerrainBenchmark
+    private static final int PERIOD = 4096 * Block.getBlockSize();
+
+    @Param({"768", "1536", "3072"})
+    private int rangeWidth;
+
+    private Flora flora;
+    private int minX;
+
+    /**
+     * Creates the terrain and the flora growing on it.
+     */
+    @Setup
+    public void setup() {
+        Terrain terrain = new Terrain(WINDOW_DIMENSIONS, SEED, true);
+        flora = new Flora(terrain::groundHeightAt, SEED);
+        minX = 0;
+    }
+
+    /**
+     * Generates the trees of the next range.
+     */
+    @Benchmark
+    public ArrayList<Tree> createInRange() {
+        ArrayList<Tree> trees = flora.createInRange(minX, minX + rangeWidth);
+        minX = (minX + rangeWidth) % PERIOD;
+        return trees;
+    }
+}
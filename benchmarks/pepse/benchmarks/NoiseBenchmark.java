@@ -0,0 +1,64 @@
+package pepse.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import pepse.util.NoiseGenerator;
+
+/**
+ * Benchmarks the terrain noise over a range of block-aligned columns,
+ * one column at a time and with a single bulk call.
+ *
+ * @author fanteo12
+ */
+@State(Scope.Thread)
+public class NoiseBenchmark {
+
+    // constants
+    private static final int SEED = 12;
+    private static final int START_POINT = 480;
+    private static final int BLOCK_SIZE = 30;
+    private static final double NOISE_FACTOR = 270;
+
+    @Param({"768", "1536", "3072"})
+    private int rangeWidth;
+
+    private NoiseGenerator noiseGenerator;
+    private double[] xs;
+    private float[] heights;
+
+    /**
+     * Creates the generator and the column coordinates of the range.
+     */
+    @Setup
+    public void setup() {
+        noiseGenerator = new NoiseGenerator(SEED, START_POINT);
+        xs = new double[rangeWidth / BLOCK_SIZE];
+        heights = new float[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = i * BLOCK_SIZE;
+        }
+    }
+
+    /**
+     * Evaluates the noise of every column separately.
+     */
+    @Benchmark
+    public void scalarNoise(Blackhole blackhole) {
+        for (double x : xs) {
+            blackhole.consume(noiseGenerator.noise(x, NOISE_FACTOR));
+        }
+    }
+
+    /**
+     * Evaluates the noise of all the columns in one bulk call.
+     */
+    @Benchmark
+    public float[] bulkNoise() {
+        noiseGenerator.noise(xs, NOISE_FACTOR, heights);
+        return heights;
+    }
+}
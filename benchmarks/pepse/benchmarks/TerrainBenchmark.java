@@ -0,0 +1,58 @@
+package pepse.benchmarks;
+
+import danogl.util.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pepse.world.Block;
+import pepse.world.Terrain;
+
+import java.util.List;
+
+/**
+ * Benchmarks terrain generation of a range, in per-block and merged-column modes.
+ * Every invocation generates the next range to the right, as the game does while the avatar runs,
+ * so the heightmap has to compute the new columns. The ranges wrap back to 0 after a fixed period,
+ * which keeps the coordinates in the range the game plays in.
+ *
+ * @author fanteo12
+ */
+@State(Scope.Thread)
+public class TerrainBenchmark {
+
+    // constants
+    private static final int SEED = 12;
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1024, 720);
+    // a multiple of every range width, far wider than the cached heightmap, and small enough for exact floats
+    private static final int PERIOD = 4096 * Block.getBlockSize();
+
+    @Param({"768", "1536", "3072"})
+    private int rangeWidth;
+
+    @Param({"false", "true"})
+    private boolean mergeColumns;
+
+    private Terrain terrain;
+    private int minX;
+
+    /**
+     * Creates the terrain.
+     */
+    @Setup
+    public void setup() {
+        terrain = new Terrain(WINDOW_DIMENSIONS, SEED, mergeColumns);
+        minX = 0;
+    }
+
+    /**
+     * Generates the blocks of the next range.
+     */
+    @Benchmark
+    public List<Block> createInRange() {
+        List<Block> blocks = terrain.createInRange(minX, minX + rangeWidth);
+        minX = (minX + rangeWidth) % PERIOD;
+        return blocks;
+    }
+}
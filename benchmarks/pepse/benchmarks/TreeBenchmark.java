@@ -0,0 +1,43 @@
+package pepse.benchmarks;
+
+import danogl.util.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pepse.world.Terrain;
+import pepse.world.trees.Tree;
+
+import java.util.Random;
+
+/**
+ * Benchmarks the construction of a single tree, with its trunk, leaves and fruits.
+ *
+ * @author fanteo12
+ */
+@State(Scope.Thread)
+public class TreeBenchmark {
+
+    // constants
+    private static final int SEED = 12;
+    private static final float LOCATION = 300;
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1024, 720);
+
+    private Terrain terrain;
+
+    /**
+     * Creates the terrain the tree grows on.
+     */
+    @Setup
+    public void setup() {
+        terrain = new Terrain(WINDOW_DIMENSIONS, SEED, true);
+    }
+
+    /**
+     * Constructs a tree from a fixed seed.
+     */
+    @Benchmark
+    public Tree createTree() {
+        return new Tree(LOCATION, terrain::groundHeightAt, new Random(SEED));
+    }
+}
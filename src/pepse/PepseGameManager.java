@@ -12,15 +12,22 @@ import danogl.gui.WindowController;
 import danogl.gui.rendering.Camera;
 import danogl.gui.rendering.TextRenderable;
 import danogl.util.Vector2;
+import pepse.events.ChunkGenerationEvent;
+import pepse.util.FrameProfiler;
 import pepse.world.*;
 import pepse.world.daynight.Night;
 import pepse.world.daynight.Sun;
 import pepse.world.daynight.SunHalo;
 import pepse.world.trees.Flora;
+import pepse.world.trees.Fruit;
+import pepse.world.trees.FruitLedger;
+import pepse.world.trees.FruitPicker;
+import pepse.world.trees.LeafSwaySystem;
 import pepse.world.trees.Tree;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Objects;
 import java.util.Random;
 
 import static pepse.util.Constants.*;
@@ -45,18 +52,83 @@ public class PepseGameManager extends GameManager {
     private static final float AVATAR_SIZE_RATIO = 2;
     private static final float CAMERA_RATIO = 0.5f;
     private static final int CREATE_IN_RANGE = 1536/2;
+    private static final GroundMode GROUND_MODE = GroundMode.BAKED_CHUNKS;
+    private static final boolean HEIGHTFIELD_COLLISIONS = true;
+    private static final int TERRAIN_LAYER = Layer.STATIC_OBJECTS - 1;
+    private static final int FRUIT_LAYER = Layer.DEFAULT - 1;
+    private static final boolean USE_CHUNK_STORE = true;
+    private static final String CHUNK_STORE_DIRECTORY = "pepse-data/chunks";
+    // bump whenever Terrain, Flora or ColorSupplier generate different chunks, so stored ones go stale
+    private static final int GENERATION_VERSION = 1;
+    private static final boolean USE_SAVES = true;
+    private static final String SAVE_DIRECTORY = "pepse-data/save";
+    private static final float AUTOSAVE_SECONDS = 30;
+    private static final int INSERTIONS_PER_FRAME = 150;
+    private static final long INSERTION_BUDGET_MICROS = 2000;
+    private static final float WAKE_MARGIN = 6 * Block.getBlockSize();
+    private static final int MAX_LIVE_DROPS = 4000;
+    private static final int PROFILED_FRAMES = 600;
+    private static final String PROFILE_DIRECTORY = "pepse-data/profile";
+    private static final float DEBUG_PANEL_Y = 50;
+    private static final float DEBUG_PANEL_WIDTH = 300;
 
     // fields
     private Vector2 windowDimensions;
     private float initialGroundHeight;
-    private int minXCreated;
-    private int maxXCreated;
-    private int seed;
+    private final int seed;
     private Terrain terrain;
     private Avatar avatar;
     private Flora flora;
-    private ArrayList<Tree> trees;
-    private Cloud cloud;
+    private ChunkManager chunkManager;
+    private ChunkStore chunkStore;
+    private LeafSwaySystem leafSwaySystem;
+    private WorldIndex worldIndex;
+    private CloudField cloudField;
+    private SaveStore saveStore;
+    private SaveStore.WorldState savedState;
+    private FruitLedger fruitLedger;
+    private FruitPicker fruitPicker;
+    private float timeSinceSave;
+    private FrameProfiler profiler;
+    private int frameSection;
+    private int engineSection;
+    private int fruitSection;
+    private int saveSection;
+    private int chunkSection;
+    private int cloudSection;
+    private int leafSection;
+
+    /**
+     * The ways the ground of a chunk can be built. The game runs with BAKED_CHUNKS; the other modes are
+     * kept to compare against, and are what the terrain benchmarks measure.
+     */
+    private enum GroundMode {
+        /** A block per cell of the terrain. */
+        BLOCKS,
+        /** A single block spanning the terrain depth per run of adjacent columns at equal height. */
+        MERGED_COLUMNS,
+        /**
+         * A single render-only object per chunk, drawing an image of its blocks. It needs heightfield
+         * collisions; without them the ground is built as MERGED_COLUMNS instead.
+         */
+        BAKED_CHUNKS
+    }
+
+    /**
+     * Constructs a game that continues the saved game, or with a random world seed if there is none.
+     */
+    public PepseGameManager() {
+        this(savedSeedOrRandom());
+    }
+
+    /**
+     * Constructs a game whose world is generated from the given seed.
+     *
+     * @param seed The seed of the procedural world generation.
+     */
+    public PepseGameManager(int seed) {
+        this.seed = seed;
+    }
 
     /**
      * Initializes the game, setting up all game elements and their relationships.
@@ -74,9 +146,9 @@ public class PepseGameManager extends GameManager {
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
         windowDimensions = windowController.getWindowDimensions();
         initialGroundHeight = windowDimensions.y() * GROUND_RATIO_NUMERATOR/GROUND_RATIO_DENOMINATOR;
-        minXCreated = - CREATE_IN_RANGE;
-        maxXCreated = (int)windowDimensions.x() + CREATE_IN_RANGE;
-        seed = new Random().nextInt(START_SEED,END_SEED);
+
+        // saved game of this seed
+        loadSave();
 
         // create sky
         createSky();
@@ -95,18 +167,69 @@ public class PepseGameManager extends GameManager {
 
         // energy
         createEnergy();
-        
-        // flora
-        createFlora(minXCreated,maxXCreated);
 
-        // cloud
+        // frame timings, shown on demand
+        createDebugPanel(inputListener);
+
+        // clouds, streamed with the chunks
         createCloud();
 
+        // terrain and flora chunks around the avatar
+        createChunks();
+
         // camera
         setCamera();
 
         }
 
+    /**
+     * Returns the seed of the saved game, or a random seed if there is no saved game.
+     */
+    private static int savedSeedOrRandom() {
+        SaveStore.WorldState state = USE_SAVES ? SaveStore.loadWorld(Path.of(SAVE_DIRECTORY)) : null;
+        return state != null ? state.getSeed() : new Random().nextInt(START_SEED,END_SEED);
+    }
+
+    /**
+     * Opens the save store, reads the saved state if it belongs to this seed, and saves the game when
+     * the program exits.
+     */
+    private void loadSave() {
+        if (!isSavingEnabled()) {
+            return;
+        }
+        saveStore = new SaveStore(Path.of(SAVE_DIRECTORY), seed);
+        savedState = SaveStore.loadWorld(Path.of(SAVE_DIRECTORY));
+        if (savedState != null && savedState.getSeed() != seed) {
+            savedState = null;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(this::saveGame));
+    }
+
+    /**
+     * Returns whether the game continues from and writes to the saved game, and reads and writes
+     * generated chunks in the chunk store.
+     *
+     * @return True if saving is enabled.
+     */
+    protected boolean isSavingEnabled() {
+        return USE_SAVES;
+    }
+
+    /**
+     * Saves the avatar state and the chunks that changed since the last save.
+     * Synchronized, since it is also called from the shutdown hook.
+     */
+    private synchronized void saveGame() {
+        timeSinceSave = 0;
+        if (saveStore == null || fruitLedger == null) {
+            return;
+        }
+        fruitLedger.flush();
+        saveStore.saveWorld(new SaveStore.WorldState(seed, fruitLedger.getClock(),
+                avatar.getTopLeftCorner().x(), avatar.getTopLeftCorner().y(), avatar.getEnergy()));
+    }
+
     /**
      * Set up camera following the avatar
      */
@@ -121,37 +244,123 @@ public class PepseGameManager extends GameManager {
     }
 
     /**
-     * Creates and adds clouds to the game environment.
+     * Creates the cloud field, whose clouds are added to the game as chunks are loaded.
      */
     private void createCloud() {
-            cloud = new Cloud(windowDimensions,this::addGameObject,this::removeGameObjects);
-            avatar.addObserver(cloud);
+            cloudField = new CloudField(windowDimensions,this::addGameObject,this::removeGameObject,
+                    () -> camera().getTopLeftCorner(),seed,MAX_LIVE_DROPS);
+            avatar.addObserver(cloudField);
     }
 
     /**
-     * creates flora, including trees and other vegetation, to the game.
+     * Creates the chunk manager and loads the chunks around the avatar.
      */
-    private void createFlora(int minXCreated, int maxXCreated) {
-        flora = new Flora(terrain::groundHeightAt,this::addGameObject,this::removeGameObjects,seed);
-        createTrees(minXCreated,maxXCreated);
+    private void createChunks() {
+        fruitLedger = new FruitLedger(saveStore, savedState != null ? savedState.getClock() : 0);
+        flora = new Flora(terrain::groundHeightAt,seed);
+        if (USE_CHUNK_STORE && isSavingEnabled()) {
+            // stored heights depend on the window height, and every array on the chunk size
+            chunkStore = new ChunkStore(Path.of(CHUNK_STORE_DIRECTORY), seed,
+                    Objects.hash(GENERATION_VERSION, initialGroundHeight, ChunkManager.getChunkSize()));
+        }
+        InsertionScheduler insertionScheduler = new InsertionScheduler(this::addGameObject,
+                INSERTIONS_PER_FRAME, INSERTION_BUDGET_MICROS);
+        chunkManager = new ChunkManager(this::prepareChunk, this::buildChunk, insertionScheduler,
+                this::removeGameObject, windowDimensions.x() * SCREEN_RATIO + CREATE_IN_RANGE, WAKE_MARGIN,
+                profiler);
+        leafSwaySystem = new LeafSwaySystem();
+        chunkManager.addListener(leafSwaySystem);
+        chunkManager.addListener(cloudField);
+        worldIndex = new WorldIndex();
+        chunkManager.addListener(worldIndex);
+        chunkManager.addListener(fruitLedger);
+        fruitPicker = new FruitPicker(worldIndex, this::eatFruit);
+        // the camera is not set yet, but it will be centered on the avatar
+        float viewMinX = avatar.getCenter().x() - windowDimensions.x() * SCREEN_RATIO;
+        chunkManager.update(viewMinX, viewMinX + windowDimensions.x());
+        // the avatar must not start above missing ground
+        chunkManager.finishInsertions();
+    }
+
+    /**
+     * Prepares the plain data of a chunk: its column heights, tree locations and block colors, read from
+     * the chunk store or generated, and the baked image of its ground if it is not cached.
+     * Runs on the chunk workers, so it creates no game objects and leaves the heightmap and the tree
+     * registry alone; the only shared state it touches is the store entry of this chunk.
+     *
+     * @param index The index of the chunk to prepare.
+     * @return The data of the chunk.
+     */
+    private ChunkData prepareChunk(int index) {
+        ChunkGenerationEvent event = new ChunkGenerationEvent();
+        event.start(index);
+        ChunkRecord record = chunkStore != null ? chunkStore.load(index) : null;
+        if (record == null) {
+            record = new ChunkRecord(terrain.columnHeights(index), flora.scanTreeLocations(index),
+                    terrain.blockColors(index));
+            if (chunkStore != null) {
+                chunkStore.save(index, record);
+            }
+        }
+        ChunkImageCache.Entry bakedGround = null;
+        if (bakesGround() && !terrain.hasBakedChunk(index)) {
+            bakedGround = terrain.bakeChunk(index, record.getColumnHeights(), record.getBlockColors());
+        }
+        event.finish(record.getColumnHeights().length, record.getTreeLocations().length);
+        return new ChunkData(index, record, bakedGround);
     }
 
     /**
-     * Generates and adds trees to the game in the specified range.
+     * Builds the terrain and flora objects of a chunk from its data, on the game thread.
+     *
+     * @param data The data of the chunk, see {@link #prepareChunk(int)}.
+     * @return The built chunk.
      */
-    private void createTrees(int minX, int maxX) {
-        trees = flora.createInRange(minX,maxX);
-        for (Tree tree : trees){
-            gameObjects().addGameObject(tree.getStump(),Layer.STATIC_OBJECTS);
-            ArrayList<GameObject> leaves = tree.getLeaves();
-            for (GameObject leaf : leaves){
-                gameObjects().addGameObject(leaf,Layer.STATIC_OBJECTS);
+    private Chunk buildChunk(ChunkData data) {
+        int index = data.getIndex();
+        ChunkRecord record = data.getRecord();
+        terrain.restoreColumnHeights(index, record.getColumnHeights());
+        Chunk chunk = new Chunk(index);
+        int minX = ChunkManager.chunkMinX(index);
+        int maxX = minX + ChunkManager.getChunkSize();
+
+        if (bakesGround()) {
+            chunk.add(terrain.createBakedChunk(index, data.getBakedGround(), record.getBlockColors()),
+                    TERRAIN_LAYER);
+        }
+        else {
+            for (Block block : terrain.createInRange(minX, maxX - Block.getBlockSize())) {
+                // add first layer as static objects, and the rest as a foreground objects;
+                // with heightfield collisions the ground is render-only, in a layer that collides with nothing
+                if (GROUND_TAG.equals(block.getTag())) {
+                    chunk.add(block, HEIGHTFIELD_COLLISIONS ? TERRAIN_LAYER : Layer.STATIC_OBJECTS);
+                }
+                else {chunk.add(block, Layer.FOREGROUND);}
             }
-            ArrayList<GameObject> fruits = tree.getFruits();
-            for (GameObject fruit : fruits){
-                gameObjects().addGameObject(fruit,Layer.DEFAULT);
+        }
+
+        // fruits are identified by their chunk and their order in it, which the seed determines
+        int fruitIndex = 0;
+        for (Tree tree : flora.createTrees(record.getTreeLocations())) {
+            chunk.add(tree.getStump(), Layer.STATIC_OBJECTS);
+            for (GameObject leaf : tree.getLeaves()) {
+                chunk.add(leaf, Layer.STATIC_OBJECTS);
+            }
+            for (Fruit fruit : tree.getFruits()) {
+                fruit.setIdentity(index, fruitIndex++);
+                // fruits collide with nothing, the avatar picks them up through the fruit picker
+                chunk.add(fruit, FRUIT_LAYER);
             }
         }
+        return chunk;
+    }
+
+    /**
+     * Returns whether the ground of a chunk is baked into one image, rather than built from blocks.
+     * A baked chunk is render-only, so it relies on the heightfield for collisions.
+     */
+    private static boolean bakesGround() {
+        return GROUND_MODE == GroundMode.BAKED_CHUNKS && HEIGHTFIELD_COLLISIONS;
     }
 
     /**
@@ -166,12 +375,48 @@ public class PepseGameManager extends GameManager {
         gameObjects().addGameObject(panel,Layer.UI);
     }
 
+    /**
+     * Creates the frame profiler, and the debug panel that shows its timings and the object count
+     * of every layer.
+     */
+    private void createDebugPanel(UserInputListener inputListener) {
+        profiler = new FrameProfiler(PROFILED_FRAMES);
+        frameSection = profiler.addSection("frame");
+        engineSection = profiler.addSection("engine");
+        fruitSection = profiler.addSection("fruits");
+        saveSection = profiler.addSection("autosave");
+        chunkSection = profiler.addSection("chunks");
+        cloudSection = profiler.addSection("clouds");
+        leafSection = profiler.addSection("leaves");
+
+        LinkedHashMap<String, Integer> layers = new LinkedHashMap<>();
+        layers.put("background", Layer.BACKGROUND);
+        layers.put("terrain", TERRAIN_LAYER);
+        layers.put("static", Layer.STATIC_OBJECTS);
+        layers.put("fruit", FRUIT_LAYER);
+        layers.put("default", Layer.DEFAULT);
+        layers.put("foreground", Layer.FOREGROUND);
+        layers.put("ui", Layer.UI);
+        DebugPanel panel = new DebugPanel(new Vector2(ENERGY_X, DEBUG_PANEL_Y),
+                new Vector2(DEBUG_PANEL_WIDTH, 0), inputListener, profiler, layers,
+                gameObjects()::objectsInLayer, Path.of(PROFILE_DIRECTORY));
+        panel.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        gameObjects().addGameObject(panel,Layer.UI);
+    }
+
     /**
      * Creates and adds the avatar to the game.
      */
     private void createAvatar(UserInputListener inputListener, ImageReader imageReader) {
         float xCoordinate = windowDimensions.x()*SCREEN_RATIO;
-        avatar = new Avatar(new Vector2(xCoordinate,windowDimensions.y()/2),inputListener,imageReader);
+        Vector2 position = savedState != null
+                ? new Vector2(savedState.getAvatarX(), savedState.getAvatarY())
+                : new Vector2(xCoordinate,windowDimensions.y()/2);
+        avatar = new Avatar(position,inputListener,imageReader,
+                HEIGHTFIELD_COLLISIONS ? terrain::groundSurfaceIn : null);
+        if (savedState != null) {
+            avatar.setEnergy(savedState.getEnergy());
+        }
         gameObjects().addGameObject(avatar);
     }
 
@@ -197,16 +442,7 @@ public class PepseGameManager extends GameManager {
      * Creates and initializes the terrain.
      */
     private void createTerrain() {
-        terrain = new Terrain(windowDimensions,seed);
-        List<Block> ground = terrain.createInRange(minXCreated,maxXCreated);
-        for(Block block : ground){
-            // add first layer as static objects
-            if (block.getTag().equals(GROUND_TAG)){
-                gameObjects().addGameObject(block,Layer.STATIC_OBJECTS);
-            }
-            // add the rest as a background objects
-            else {gameObjects().addGameObject(block,Layer.FOREGROUND);}
-        }
+        terrain = new Terrain(windowDimensions,seed,GROUND_MODE != GroundMode.BLOCKS);
     }
 
     /**
@@ -218,74 +454,64 @@ public class PepseGameManager extends GameManager {
     }
 
     /**
-     * Updates the game state and manages terrain and flora creation dynamically.
+     * Updates the game state, loads or unloads terrain and flora chunks around the camera view,
+     * puts the chunks far from the view to sleep, lets the avatar pick the fruits it overlaps,
+     * brings back the clouds that drifted out of the loaded chunks, and sways the visible leaves.
      *
      * @param deltaTime Time elapsed since the last update.
      */
     @Override
     public void update(float deltaTime) {
+        profiler.start(frameSection);
+        profiler.start(engineSection);
         super.update(deltaTime);
+        profiler.stop(engineSection);
 
-        if(avatar.getCenter().x() > maxXCreated - CREATE_IN_RANGE){
-            extendTerrain(maxXCreated, maxXCreated + CREATE_IN_RANGE);
-            createFlora(maxXCreated,maxXCreated + CREATE_IN_RANGE);
-            maxXCreated += CREATE_IN_RANGE;
-            minXCreated += CREATE_IN_RANGE;
-            removeGameObjects(true);
-        }
-
-        // Check if the avatar is near the left boundary
-        if(avatar.getCenter().x() < minXCreated + CREATE_IN_RANGE) {
-            extendTerrain(minXCreated - CREATE_IN_RANGE, minXCreated);
-            createFlora(minXCreated - CREATE_IN_RANGE, minXCreated);
-            maxXCreated -= CREATE_IN_RANGE;
-            minXCreated -= CREATE_IN_RANGE;
-            removeGameObjects(false);
-        }
-    }
+        profiler.start(fruitSection);
+        fruitLedger.update(deltaTime);
+        fruitPicker.pick(avatar);
+        profiler.stop(fruitSection);
 
-    /**
-     * Removes game objects outside the specified boundary.
-     *
-     * @param right If true, removes objects from the right boundary; otherwise from the left boundary.
-     */
-    private void removeGameObjects(boolean right) {
-        if (right) {
-            for (GameObject obj : gameObjects()){
-                if (obj.getCenter().x() < minXCreated){
-                    gameObjects().removeGameObject(obj,Layer.STATIC_OBJECTS);
-                    gameObjects().removeGameObject(obj);
-                }
-            }
-        } else {
-            for (GameObject obj : gameObjects()){
-                if (obj.getCenter().x() > maxXCreated){
-                    gameObjects().removeGameObject(obj,Layer.STATIC_OBJECTS);
-                    gameObjects().removeGameObject(obj);
-                }
-            }
+        profiler.start(saveSection);
+        timeSinceSave += deltaTime;
+        if (timeSinceSave >= AUTOSAVE_SECONDS) {
+            saveGame();
         }
+        profiler.stop(saveSection);
+
+        profiler.start(chunkSection);
+        float cameraMinX = camera().getTopLeftCorner().x();
+        chunkManager.update(cameraMinX, cameraMinX + windowDimensions.x());
+        profiler.stop(chunkSection);
+
+        profiler.start(cloudSection);
+        cloudField.recycleClouds();
+        profiler.stop(cloudSection);
+
+        // sway only the leaves in view
+        profiler.start(leafSection);
+        leafSwaySystem.update(deltaTime, cameraMinX - LEAF_SIZE, cameraMinX + windowDimensions.x() + LEAF_SIZE);
+        profiler.stop(leafSection);
+        profiler.stop(frameSection);
+        profiler.endFrame();
     }
 
     /**
-     * Generates terrain blocks in the specified range.
+     * Hides a fruit the avatar picked, schedules it to grow back, and gives its energy to the avatar.
      */
-    private void extendTerrain(int newMinX, int newMaxX) {
-
-        List<Block> ground = terrain.createInRange(newMinX,newMaxX);
-        for (Block block : ground){
-            gameObjects().addGameObject(block,Layer.STATIC_OBJECTS);
-        }
+    private void eatFruit(Fruit fruit) {
+        fruitLedger.eat(fruit);
+        avatar.eatFruit();
     }
 
-
     /**
-     * Removes a game object from the game.
+     * Removes a game object from a specified layer.
      *
      * @param gameObject The game object to remove.
+     * @param layer The layer to remove the game object from.
      */
-    public void removeGameObjects(GameObject gameObject) {
-        gameObjects().removeGameObject(gameObject);
+    public void removeGameObject(GameObject gameObject, int layer) {
+        gameObjects().removeGameObject(gameObject,layer);
     }
 
     /**
@@ -298,6 +524,24 @@ public class PepseGameManager extends GameManager {
         gameObjects().addGameObject(gameObject,layer);
     }
 
+    /**
+     * Returns the spatial index of the objects in the loaded chunks.
+     *
+     * @return The world index.
+     */
+    public WorldIndex getWorldIndex() {
+        return worldIndex;
+    }
+
+    /**
+     * Returns the avatar.
+     *
+     * @return The avatar.
+     */
+    protected Avatar getAvatar() {
+        return avatar;
+    }
+
     /**
      * Entry point for running the game.
      *
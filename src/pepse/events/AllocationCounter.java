@@ -0,0 +1,39 @@
+package pepse.events;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Reads the number of bytes allocated by the current thread, through the HotSpot extension of the
+ * thread management bean. The counter is maintained by the JVM anyway, so reading it is cheap, and the
+ * difference of two reads is the memory the thread allocated in between.
+ *
+ * @author fanteo12
+ */
+public final class AllocationCounter {
+
+    // fields
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private AllocationCounter() {
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread since it started.
+     *
+     * @return The allocated bytes, or 0 if the JVM does not count allocations.
+     */
+    public static long currentThreadBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    /**
+     * Returns the thread bean if it counts allocations.
+     */
+    private static com.sun.management.ThreadMXBean threads() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,35 @@
+package pepse.events;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for the generation of the data of a chunk, on a worker or the game thread.
+ * The game objects of the chunk are built from the data later, on the game thread.
+ *
+ * @author fanteo12
+ */
+@Name("pepse.ChunkGeneration")
+@Label("Chunk Generation")
+@Description("Generation or loading of the terrain and flora data of a chunk")
+public class ChunkGenerationEvent extends WorldEvent {
+
+    // fields
+    @Label("Columns")
+    private int columnCount;
+    @Label("Trees")
+    private int treeCount;
+
+    /**
+     * Stops timing the event, and commits it if it is recorded.
+     *
+     * @param columnCount The number of ground columns of the chunk.
+     * @param treeCount The number of trees of the chunk.
+     */
+    public void finish(int columnCount, int treeCount) {
+        this.columnCount = columnCount;
+        this.treeCount = treeCount;
+        finish();
+    }
+}
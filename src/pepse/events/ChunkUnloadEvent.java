@@ -0,0 +1,30 @@
+package pepse.events;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for the removal of a chunk from the game, including its listeners.
+ *
+ * @author fanteo12
+ */
+@Name("pepse.ChunkUnload")
+@Label("Chunk Unload")
+@Description("Removal of the objects of a chunk and notification of its listeners")
+public class ChunkUnloadEvent extends WorldEvent {
+
+    // fields
+    @Label("Objects")
+    private int objectCount;
+
+    /**
+     * Stops timing the event, and commits it if it is recorded.
+     *
+     * @param objectCount The number of game objects of the chunk.
+     */
+    public void finish(int objectCount) {
+        this.objectCount = objectCount;
+        finish();
+    }
+}
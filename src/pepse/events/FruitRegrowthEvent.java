@@ -0,0 +1,31 @@
+package pepse.events;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for eaten fruits growing back, either one fruit whose regrowth timer expired,
+ * or all the fruits of a chunk whose regrowth time passed while it was not loaded.
+ *
+ * @author fanteo12
+ */
+@Name("pepse.FruitRegrowth")
+@Label("Fruit Regrowth")
+@Description("Eaten fruits of a chunk growing back")
+public class FruitRegrowthEvent extends WorldEvent {
+
+    // fields
+    @Label("Fruits")
+    private int fruitCount;
+
+    /**
+     * Stops timing the event, and commits it if it is recorded.
+     *
+     * @param fruitCount The number of fruits that grew back.
+     */
+    public void finish(int fruitCount) {
+        this.fruitCount = fruitCount;
+        finish();
+    }
+}
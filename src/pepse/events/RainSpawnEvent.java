@@ -0,0 +1,34 @@
+package pepse.events;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for a burst of rain drops spawned from the visible clouds.
+ *
+ * @author fanteo12
+ */
+@Name("pepse.RainSpawn")
+@Label("Rain Spawn")
+@Description("Rain drops spawned from the visible clouds when the avatar jumps")
+public class RainSpawnEvent extends WorldEvent {
+
+    // fields
+    @Label("Spawned Drops")
+    private int spawnedCount;
+    @Label("Live Drops")
+    private int liveCount;
+
+    /**
+     * Stops timing the event, and commits it if it is recorded.
+     *
+     * @param spawnedCount The number of drops spawned.
+     * @param liveCount The number of drops in the game after the burst.
+     */
+    public void finish(int spawnedCount, int liveCount) {
+        this.spawnedCount = spawnedCount;
+        this.liveCount = liveCount;
+        finish();
+    }
+}
@@ -0,0 +1,34 @@
+package pepse.events;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for the creation of a tree, with its leaves and fruits.
+ *
+ * @author fanteo12
+ */
+@Name("pepse.TreeCreation")
+@Label("Tree Creation")
+@Description("Creation of the trunk, leaves and fruits of a tree")
+public class TreeCreationEvent extends WorldEvent {
+
+    // fields
+    @Label("Leaves")
+    private int leafCount;
+    @Label("Fruits")
+    private int fruitCount;
+
+    /**
+     * Stops timing the event, and commits it if it is recorded.
+     *
+     * @param leafCount The number of leaves of the tree.
+     * @param fruitCount The number of fruits of the tree.
+     */
+    public void finish(int leafCount, int fruitCount) {
+        this.leafCount = leafCount;
+        this.fruitCount = fruitCount;
+        finish();
+    }
+}
@@ -0,0 +1,56 @@
+package pepse.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * The base of the flight recorder events of the world. An event is timed between {@link #start(int)}
+ * and {@link #finish()}, and records the chunk it concerns and the bytes the current thread allocated
+ * in between. While the event type is not enabled in a recording, both calls return after a single
+ * check, so an event costs close to nothing outside of recordings.
+ *
+ * @author fanteo12
+ */
+@Category({"Pepse", "World"})
+@StackTrace(false)
+public abstract class WorldEvent extends Event {
+
+    // fields; the recorder skips private fields declared in a superclass of the event
+    @Label("Chunk Index")
+    protected int chunkIndex;
+    @Label("Allocated")
+    @DataAmount
+    protected long allocatedBytes;
+    private transient long allocationStart;
+
+    /**
+     * Starts timing the event and counting the bytes allocated by the current thread.
+     *
+     * @param chunkIndex The index of the chunk the event concerns.
+     */
+    public void start(int chunkIndex) {
+        if (!isEnabled()) {
+            return;
+        }
+        this.chunkIndex = chunkIndex;
+        this.allocationStart = AllocationCounter.currentThreadBytes();
+        begin();
+    }
+
+    /**
+     * Stops timing the event, and commits it if it passes the thresholds of the recording.
+     */
+    protected void finish() {
+        if (!isEnabled()) {
+            return;
+        }
+        end();
+        if (shouldCommit()) {
+            allocatedBytes = AllocationCounter.currentThreadBytes() - allocationStart;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package pepse.simulation;
+
+import danogl.GameObject;
+import danogl.gui.WindowController;
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+
+import java.util.Arrays;
+
+/**
+ * The HeadlessRunner class runs the full game loop with no display, as fast as possible.
+ * The avatar is driven by a {@link ScriptedInput}, every frame is updated with a fixed time step,
+ * and at the end the percentiles of the per-frame update time and the live object counts are reported.
+ * Usage: HeadlessRunner [seconds to run right] [jump every K frames] [seed] [total frames]
+ *
+ * @author fanteo12
+ */
+public class HeadlessRunner {
+
+    // constants
+    private static final float FRAME_TIME = 1f / 60;
+    private static final int FRAMES_PER_SECOND = 60;
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1024, 720);
+    private static final int DEFAULT_RUN_SECONDS = 60;
+    private static final int DEFAULT_JUMP_EVERY_FRAMES = 90;
+    private static final int DEFAULT_SEED = 12;
+    private static final int COUNT_EVERY_FRAMES = 60;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final String HEADLESS_PROPERTY = "java.awt.headless";
+
+    /**
+     * A game whose object collection can be inspected by the runner.
+     */
+    private static class SimulatedGame extends PepseGameManager {
+
+        /**
+         * Constructs the game with a fixed seed.
+         */
+        SimulatedGame(int seed) {
+            super(seed);
+        }
+
+        /**
+         * Disables saving, so that a scripted run neither continues nor overwrites the player's game.
+         */
+        @Override
+        protected boolean isSavingEnabled() {
+            return false;
+        }
+
+        /**
+         * Refills the energy of the avatar before every frame. Running drains it, and an avatar that
+         * keeps running never rests, so it would soon be unable to jump and stop at the first wall.
+         *
+         * @param deltaTime Time elapsed since the last update.
+         */
+        @Override
+        public void update(float deltaTime) {
+            getAvatar().setEnergy(Float.MAX_VALUE);
+            super.update(deltaTime);
+        }
+
+        /**
+         * Counts the objects currently in the game.
+         */
+        int liveObjectCount() {
+            int count = 0;
+            for (GameObject ignored : gameObjects()) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Runs the simulation.
+     *
+     * @param args Optional: seconds to run right, jump interval in frames, seed, and total frames.
+     */
+    public static void main(String[] args) {
+        System.setProperty(HEADLESS_PROPERTY, Boolean.TRUE.toString());
+        int runSeconds = argOrDefault(args, 0, DEFAULT_RUN_SECONDS);
+        int jumpEveryFrames = argOrDefault(args, 1, DEFAULT_JUMP_EVERY_FRAMES);
+        int seed = argOrDefault(args, 2, DEFAULT_SEED);
+        int totalFrames = argOrDefault(args, 3, runSeconds * FRAMES_PER_SECOND);
+
+        ScriptedInput input = new ScriptedInput(runSeconds * FRAMES_PER_SECOND, jumpEveryFrames);
+        WindowController window = HeadlessWindow.create(WINDOW_DIMENSIONS);
+        SimulatedGame game = new SimulatedGame(seed);
+        game.initializeGame(new StubImageReader(window), new StubSoundReader(window), input.listener(), window);
+
+        long[] frameNanos = new long[totalFrames];
+        int[] objectCounts = new int[totalFrames / COUNT_EVERY_FRAMES + 1];
+        int counted = 0;
+        for (int frame = 0; frame < totalFrames; frame++) {
+            input.setFrame(frame);
+            long start = System.nanoTime();
+            game.update(FRAME_TIME);
+            frameNanos[frame] = System.nanoTime() - start;
+            if (frame % COUNT_EVERY_FRAMES == 0) {
+                objectCounts[counted++] = game.liveObjectCount();
+            }
+        }
+
+        report(frameNanos, Arrays.copyOf(objectCounts, counted));
+    }
+
+    /**
+     * Prints the frame time percentiles and the live object counts.
+     */
+    private static void report(long[] frameNanos, int[] objectCounts) {
+        long[] sorted = frameNanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("frames: %d%n", sorted.length);
+        for (double percentile : PERCENTILES) {
+            System.out.printf("p%s update: %.3f ms%n", percentile, percentile(sorted, percentile) / NANOS_PER_MILLI);
+        }
+        if (sorted.length > 0) {
+            System.out.printf("max update: %.3f ms%n", sorted[sorted.length - 1] / NANOS_PER_MILLI);
+        }
+        if (objectCounts.length > 0) {
+            System.out.printf("live objects: min %d, mean %.1f, max %d%n",
+                    Arrays.stream(objectCounts).min().getAsInt(),
+                    Arrays.stream(objectCounts).average().getAsDouble(),
+                    Arrays.stream(objectCounts).max().getAsInt());
+        }
+    }
+
+    /**
+     * Returns the given percentile of a sorted array, using the nearest rank.
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    /**
+     * Returns the integer argument at the given index, or a default value if it is missing.
+     */
+    private static int argOrDefault(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}
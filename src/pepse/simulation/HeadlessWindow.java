@@ -0,0 +1,58 @@
+package pepse.simulation;
+
+import danogl.gui.WindowController;
+import danogl.util.Vector2;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * The HeadlessWindow class provides a WindowController that is not backed by any display.
+ * It reports fixed window dimensions, and every other call is a no-op that returns a default value.
+ *
+ * @author fanteo12
+ */
+public class HeadlessWindow {
+
+    /**
+     * Creates a window controller with fixed dimensions.
+     *
+     * @param windowDimensions The dimensions the window reports.
+     * @return The headless window controller.
+     */
+    public static WindowController create(Vector2 windowDimensions) {
+        return (WindowController) Proxy.newProxyInstance(
+                WindowController.class.getClassLoader(),
+                new Class<?>[]{WindowController.class},
+                (proxy, method, args) -> {
+                    if (method.getReturnType() == Vector2.class) {
+                        return windowDimensions;
+                    }
+                    return defaultValue(method.getReturnType());
+                });
+    }
+
+    /**
+     * Returns the value a no-op method returns for the given return type.
+     *
+     * @param type The return type of the method.
+     * @return Zero or false for primitive types, otherwise null.
+     */
+    static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == double.class) {
+            return 0d;
+        }
+        return null;
+    }
+}
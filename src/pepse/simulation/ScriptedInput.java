@@ -0,0 +1,76 @@
+package pepse.simulation;
+
+import danogl.gui.UserInputListener;
+
+import java.awt.event.KeyEvent;
+import java.lang.reflect.Proxy;
+
+/**
+ * The ScriptedInput class drives the avatar with synthetic input instead of a keyboard.
+ * The script runs right for a given number of frames, and presses jump once every given number of
+ * frames during the whole run.
+ *
+ * @author fanteo12
+ */
+public class ScriptedInput {
+
+    // fields
+    private final int runRightFrames;
+    private final int jumpEveryFrames;
+    private final UserInputListener listener;
+    private int frame;
+
+    /**
+     * Constructs a scripted input.
+     *
+     * @param runRightFrames The number of frames in which the right key is held.
+     * @param jumpEveryFrames The jump key is pressed on every frame divisible by this number.
+     *                        Zero or less disables jumping.
+     */
+    public ScriptedInput(int runRightFrames, int jumpEveryFrames) {
+        this.runRightFrames = runRightFrames;
+        this.jumpEveryFrames = jumpEveryFrames;
+        this.listener = (UserInputListener) Proxy.newProxyInstance(
+                UserInputListener.class.getClassLoader(),
+                new Class<?>[]{UserInputListener.class},
+                (proxy, method, args) -> {
+                    if (args != null && args.length == 1 && args[0] instanceof Integer
+                            && method.getReturnType() == boolean.class) {
+                        return isKeyPressed((Integer) args[0]);
+                    }
+                    return HeadlessWindow.defaultValue(method.getReturnType());
+                });
+    }
+
+    /**
+     * Returns the input listener to hand to the game.
+     * Every query about a key reports whether the script holds that key in the current frame.
+     *
+     * @return The scripted input listener.
+     */
+    public UserInputListener listener() {
+        return listener;
+    }
+
+    /**
+     * Moves the script to the given frame.
+     *
+     * @param frame The index of the frame about to be updated.
+     */
+    public void setFrame(int frame) {
+        this.frame = frame;
+    }
+
+    /**
+     * Returns whether the script holds a key in the current frame.
+     */
+    private boolean isKeyPressed(int keyCode) {
+        if (keyCode == KeyEvent.VK_RIGHT) {
+            return frame < runRightFrames;
+        }
+        if (keyCode == KeyEvent.VK_SPACE) {
+            return jumpEveryFrames > 0 && frame % jumpEveryFrames == 0;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+package pepse.simulation;
+
+import danogl.gui.ImageReader;
+import danogl.gui.WindowController;
+import danogl.gui.rendering.ImageRenderable;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * An ImageReader that does not read anything from disk.
+ * Every requested image is the same transparent single pixel.
+ *
+ * @author fanteo12
+ */
+public class StubImageReader extends ImageReader {
+
+    // fields
+    private final ImageRenderable blankImage;
+
+    /**
+     * Constructs a stub image reader.
+     *
+     * @param windowController The headless window controller.
+     */
+    public StubImageReader(WindowController windowController) {
+        super(windowController);
+        blankImage = new ImageRenderable(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+    }
+
+    /**
+     * Returns a blank image instead of reading the given file.
+     *
+     * @param imageFilePath The path of the requested image, ignored.
+     * @param useTopLeftPixelAsTransparent Ignored.
+     * @return A transparent single pixel image.
+     */
+    @Override
+    public ImageRenderable readImage(String imageFilePath, boolean useTopLeftPixelAsTransparent) {
+        return blankImage;
+    }
+}
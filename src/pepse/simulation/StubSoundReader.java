@@ -0,0 +1,22 @@
+package pepse.simulation;
+
+import danogl.gui.SoundReader;
+import danogl.gui.WindowController;
+
+/**
+ * A SoundReader for the headless simulation. The game does not play sounds in the simulation,
+ * so the stub only exists to satisfy the game initialization.
+ *
+ * @author fanteo12
+ */
+public class StubSoundReader extends SoundReader {
+
+    /**
+     * Constructs a stub sound reader.
+     *
+     * @param windowController The headless window controller.
+     */
+    public StubSoundReader(WindowController windowController) {
+        super(windowController);
+    }
+}
@@ -0,0 +1,50 @@
+package pepse.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes files atomically: the content is written to a temporary file in the same directory, which is
+ * then moved over the target. Readers never see a partially written file, and concurrent writers of
+ * the same file leave exactly one complete version behind.
+ *
+ * @author fanteo12
+ */
+public final class AtomicFiles {
+
+    // constants
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Replaces the content of a file with the remaining bytes of the given buffers, creating its
+     * directory if needed.
+     *
+     * @param path The file to write.
+     * @param buffers The content of the file, in order.
+     * @throws IOException If the file could not be written; the previous content is then left intact.
+     */
+    public static void write(Path path, ByteBuffer... buffers) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), TEMP_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffers[buffers.length - 1].hasRemaining()) {
+                    channel.write(buffers);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+}
@@ -1,15 +1,125 @@
 package pepse.util;
 
+import danogl.gui.rendering.OvalRenderable;
+import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
+
 import java.awt.*;
+import java.util.HashMap;
 import java.util.Random;
+import java.util.function.Function;
 
 /**
  * Provides procedurally-generated colors around a pivot.
+ * In palette mode, each base color and delta pair is quantized into a fixed set of variants, and
+ * shared pre-built renderables are handed out instead of allocating a new one per game object.
  * @author Dan Nirel
  */
 public final class ColorSupplier {
     private static final int DEFAULT_COLOR_DELTA = 10;
+    private static final int DEFAULT_PALETTE_SIZE = 16;
     private final static Random random = new Random();
+    private final static HashMap<Long, Renderable[]> rectanglePalettes = new HashMap<>();
+    private final static HashMap<Long, Renderable[]> ovalPalettes = new HashMap<>();
+    private static volatile int paletteSize = DEFAULT_PALETTE_SIZE;
+
+    /**
+     * Sets the number of variants in every palette. A size of 0 disables palette mode, in which case
+     * every requested renderable is freshly allocated with its own color.
+     *
+     * @param size The number of variants per base color and delta.
+     */
+    public static synchronized void setPaletteSize(int size) {
+        paletteSize = size;
+        rectanglePalettes.clear();
+        ovalPalettes.clear();
+    }
+
+    /**
+     * Returns a rectangle renderable whose color is similar to baseColor, with a default delta.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @return A rectangle renderable with a color similar to baseColor.
+     */
+    public static Renderable approximateRectangle(Color baseColor) {
+        return approximateRectangle(baseColor, DEFAULT_COLOR_DELTA, random);
+    }
+
+    /**
+     * Returns a rectangle renderable whose color is similar to baseColor, with a difference of at most
+     * colorDelta. In palette mode the renderable is shared with every other caller of the same variant.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param colorDelta The maximal difference (per channel) between the sampled color and the base color.
+     * @param random The random generator used to pick the variant.
+     * @return A rectangle renderable with a color similar to baseColor.
+     */
+    public static Renderable approximateRectangle(Color baseColor, int colorDelta, Random random) {
+        // the size can change on another thread, so it is read once
+        int size = paletteSize;
+        if (size <= 0) {
+            return new RectangleRenderable(approximateColor(baseColor, colorDelta, random));
+        }
+        Renderable[] palette = paletteOf(rectanglePalettes, baseColor, colorDelta, size, RectangleRenderable::new);
+        return palette[random.nextInt(palette.length)];
+    }
+
+    /**
+     * Returns an oval renderable whose color is similar to baseColor, with a difference of at most
+     * colorDelta. In palette mode the renderable is shared with every other caller of the same variant.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param colorDelta The maximal difference (per channel) between the sampled color and the base color.
+     * @param random The random generator used to pick the variant.
+     * @return An oval renderable with a color similar to baseColor.
+     */
+    public static Renderable approximateOval(Color baseColor, int colorDelta, Random random) {
+        int size = paletteSize;
+        if (size <= 0) {
+            return new OvalRenderable(approximateColor(baseColor, colorDelta, random));
+        }
+        Renderable[] palette = paletteOf(ovalPalettes, baseColor, colorDelta, size, OvalRenderable::new);
+        return palette[random.nextInt(palette.length)];
+    }
+
+    /**
+     * Returns an oval renderable whose color is similar to baseColor, with a difference of at most colorDelta.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param colorDelta The maximal difference (per channel) between the sampled color and the base color.
+     * @return An oval renderable with a color similar to baseColor.
+     */
+    public static Renderable approximateOval(Color baseColor, int colorDelta) {
+        return approximateOval(baseColor, colorDelta, random);
+    }
+
+    /**
+     * Returns the palette of the given base color and delta, building it on first use.
+     * The variants are sampled from a generator seeded by the base color and delta,
+     * so a palette is the same every time it is built. Synchronized, since chunks are generated
+     * on worker threads.
+     *
+     * @param palettes The palettes already built for this kind of renderable.
+     * @param baseColor The base color of the palette.
+     * @param colorDelta The maximal difference (per channel) between a variant and the base color.
+     * @param size The number of variants of a palette built now. A cached palette keeps its own size.
+     * @param createRenderable Function that builds a renderable of a variant color.
+     * @return The renderables of the palette, at least one.
+     */
+    private static synchronized Renderable[] paletteOf(HashMap<Long, Renderable[]> palettes, Color baseColor, int colorDelta,
+                                          int size, Function<Color, Renderable> createRenderable) {
+        long key = ((long) baseColor.getRGB() << Integer.SIZE) | (colorDelta & 0xffffffffL);
+        Renderable[] palette = palettes.get(key);
+        if (palette == null) {
+            Random paletteRandom = new Random(key);
+            palette = new Renderable[size];
+            for (int i = 0; i < size; i++) {
+                palette[i] = createRenderable.apply(approximateColor(baseColor, colorDelta, paletteRandom));
+            }
+            palettes.put(key, palette);
+        }
+        return palette;
+    }
 
     /**
      * Returns a color similar to baseColor, with a default delta.
@@ -57,11 +167,24 @@ public final class ColorSupplier {
      * @return A color similar to baseColor.
      */
     public static Color approximateColor(Color baseColor, int colorDelta) {
+        return approximateColor(baseColor, colorDelta, random);
+    }
+
+    /**
+     * Returns a color similar to baseColor, with a difference of at most colorDelta,
+     * sampled from the given random generator so that the result can be reproduced from a seed.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param colorDelta The maximal difference (per channel) between the sampled color and the base color.
+     * @param random The random generator to sample the channels from.
+     * @return A color similar to baseColor.
+     */
+    public static Color approximateColor(Color baseColor, int colorDelta, Random random) {
 
         return new Color(
-                randomChannelInRange(baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta),
-                randomChannelInRange(baseColor.getGreen()-colorDelta, baseColor.getGreen()+colorDelta),
-                randomChannelInRange(baseColor.getBlue()-colorDelta, baseColor.getBlue()+colorDelta));
+                randomChannelInRange(baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta, random),
+                randomChannelInRange(baseColor.getGreen()-colorDelta, baseColor.getGreen()+colorDelta, random),
+                randomChannelInRange(baseColor.getBlue()-colorDelta, baseColor.getBlue()+colorDelta, random));
     }
 
     /**
@@ -72,6 +195,19 @@ public final class ColorSupplier {
      * @return A random number in the range [min, max], clipped to [0,255].
      */
     private static int randomChannelInRange(int min, int max) {
+        return randomChannelInRange(min, max, random);
+    }
+
+    /**
+     * This method generates a random value for a color channel within the given range [min, max],
+     * using the given random generator.
+     *
+     * @param min The lower bound of the given range.
+     * @param max The upper bound of the given range.
+     * @param random The random generator to sample from.
+     * @return A random number in the range [min, max], clipped to [0,255].
+     */
+    private static int randomChannelInRange(int min, int max, Random random) {
         int channel = random.nextInt(max-min+1) + min;
         return Math.min(255, Math.max(channel, 0));
     }
@@ -0,0 +1,160 @@
+package pepse.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The FrameProfiler class times named sections of the frame update with {@link System#nanoTime()}.
+ * Every section feeds a {@link RollingHistogram} of its durations over the last frames, from which
+ * percentiles are read, and the window of every section can be dumped to a CSV file, one row per frame.
+ * Timing a section costs two clock reads and a histogram update, and allocates nothing.
+ * Every section is expected to be timed once per frame, so the rows of the dump line up.
+ *
+ * @author fanteo12
+ */
+public class FrameProfiler {
+
+    // constants
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final String FRAME_COLUMN = "frame";
+    private static final String SEPARATOR = ",";
+    private static final String LINE_END = "\n";
+
+    // fields
+    private final int window;
+    private final ArrayList<String> names;
+    private final ArrayList<RollingHistogram> histograms;
+    private long[] startTimes;
+    private long frames;
+
+    /**
+     * Constructs a FrameProfiler with no sections.
+     *
+     * @param window The number of most recent frames kept for every section.
+     */
+    public FrameProfiler(int window) {
+        this.window = window;
+        this.names = new ArrayList<>();
+        this.histograms = new ArrayList<>();
+        this.startTimes = new long[0];
+    }
+
+    /**
+     * Registers a section to time.
+     *
+     * @param name The name of the section, used in the overlay and as its CSV column.
+     * @return The id of the section, to pass to {@link #start(int)} and {@link #stop(int)}.
+     */
+    public int addSection(String name) {
+        names.add(name);
+        histograms.add(new RollingHistogram(window));
+        startTimes = Arrays.copyOf(startTimes, names.size());
+        return names.size() - 1;
+    }
+
+    /**
+     * Starts timing a section.
+     *
+     * @param section The id of the section.
+     */
+    public void start(int section) {
+        startTimes[section] = System.nanoTime();
+    }
+
+    /**
+     * Stops timing a section, and records the time elapsed since it was started.
+     *
+     * @param section The id of the section.
+     */
+    public void stop(int section) {
+        histograms.get(section).record(System.nanoTime() - startTimes[section]);
+    }
+
+    /**
+     * Counts a finished frame.
+     */
+    public void endFrame() {
+        frames++;
+    }
+
+    /**
+     * Returns the number of frames counted since the profiler was created.
+     *
+     * @return The frame count.
+     */
+    public long getFrameCount() {
+        return frames;
+    }
+
+    /**
+     * Returns the number of registered sections.
+     *
+     * @return The section count.
+     */
+    public int getSectionCount() {
+        return names.size();
+    }
+
+    /**
+     * Returns the name of a section.
+     *
+     * @param section The id of the section.
+     * @return The section name.
+     */
+    public String getSectionName(int section) {
+        return names.get(section);
+    }
+
+    /**
+     * Returns the histogram of the durations of a section, in nanoseconds.
+     *
+     * @param section The id of the section.
+     * @return The section histogram.
+     */
+    public RollingHistogram getHistogram(int section) {
+        return histograms.get(section);
+    }
+
+    /**
+     * Converts a duration from nanoseconds to milliseconds.
+     *
+     * @param nanos The duration in nanoseconds.
+     * @return The duration in milliseconds.
+     */
+    public static double toMillis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Writes the recorded frames to a CSV file, with a header row, then one row per frame from the
+     * oldest to the newest, holding the frame number and the duration of every section in milliseconds.
+     *
+     * @param path The file to write.
+     * @throws IOException If the file could not be written.
+     */
+    public void writeCsv(Path path) throws IOException {
+        int rows = window;
+        for (RollingHistogram histogram : histograms) {
+            rows = Math.min(rows, histogram.getCount());
+        }
+        StringBuilder csv = new StringBuilder(FRAME_COLUMN);
+        for (String name : names) {
+            csv.append(SEPARATOR).append(name);
+        }
+        csv.append(LINE_END);
+        for (int row = 0; row < rows; row++) {
+            csv.append(frames - rows + row);
+            for (RollingHistogram histogram : histograms) {
+                long nanos = histogram.get(histogram.getCount() - rows + row);
+                csv.append(SEPARATOR).append(String.format(Locale.ROOT, "%.3f", toMillis(nanos)));
+            }
+            csv.append(LINE_END);
+        }
+        AtomicFiles.write(path, ByteBuffer.wrap(csv.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+}
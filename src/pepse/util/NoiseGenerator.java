@@ -1,11 +1,33 @@
 package pepse.util;
 
+/**
+ * Generates one-dimensional Perlin noise for the terrain.
+ * The noise is evaluated by a dedicated 1D kernel: since the terrain only samples the x-axis, the
+ * gradients of every lattice point are reduced to a precomputed slope and offset, and the octave
+ * scales and weights are precomputed once. The scalar kernel reproduces the classic 3D evaluation at
+ * y=z=0 up to double rounding: for |x| up to 50000 and a factor of a few hundred, the returned noise
+ * differs from it by less than 1e-8.
+ * Whole arrays of coordinates can be evaluated in one call. When the jdk.incubator.vector module is
+ * available (run with --add-modules jdk.incubator.vector), bulk calls are vectorized with the Vector API,
+ * and otherwise they fall back to a scalar loop. Bulk results are floats, so they are only as precise as
+ * a float: each is within one float ulp of the scalar result rounded to a float, which for noise values
+ * of a few hundred is an absolute difference of up to about 3e-5 from the double scalar result.
+ */
 public class NoiseGenerator {
+    private static final int LATTICE_SIZE = 256;
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL_CLASS = "pepse.util.VectorNoiseKernel";
     private double seed;
     private long default_size;
     private int[] p;
     private int[] permutation;
     private double startPoint;
+    private double xOffset;
+    private double[] slopes;
+    private double[] offsets;
+    private double[] octaveScales;
+    private double[] octaveWeights;
+    private NoiseKernel vectorKernel;
 
     /**
      * The constructor of the NoiseGenerator class.
@@ -55,6 +77,68 @@ public class NoiseGenerator {
             p[256 + i] = p[i] = permutation[i];
         }
 
+        initGradients();
+        initOctaves();
+        this.vectorKernel = loadVectorKernel();
+    }
+
+    /**
+     * Loads the vectorized bulk kernel if the Vector API module is available.
+     *
+     * @return The vectorized kernel, or null if bulk calls should use the scalar loop.
+     */
+    private NoiseKernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            return (NoiseKernel) Class.forName(VECTOR_KERNEL_CLASS)
+                    .getDeclaredConstructor(double.class, double[].class, double[].class,
+                            double[].class, double[].class)
+                    .newInstance(xOffset, slopes, offsets, octaveScales, octaveWeights);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reduces the gradients of every lattice point to a linear function of the distance from it.
+     * The seed offsets y by a constant (and x twice, as in the original 3D evaluation), while z stays 0,
+     * so each lattice point contributes slope * distance + offset, blended along y once here.
+     */
+    private void initGradients() {
+        this.xOffset = seed + seed;
+        double y = seed - Math.floor(seed);
+        double v = fade(y);
+        int Y = (int) Math.floor(seed) & 255;
+
+        this.slopes = new double[LATTICE_SIZE + 1];
+        this.offsets = new double[LATTICE_SIZE + 1];
+        for (int X = 0; X <= LATTICE_SIZE; X++) {
+            int A = p[X] + Y;
+            int AA = p[A];
+            int AB = p[A + 1];
+            offsets[X] = lerp(v, grad(p[AA], 0, y, 0), grad(p[AB], 0, y - 1, 0));
+            slopes[X] = lerp(v, grad(p[AA], 1, y, 0), grad(p[AB], 1, y - 1, 0)) - offsets[X];
+        }
+    }
+
+    /**
+     * Precomputes the scale and weight of every octave, halving from startPoint down to 1.
+     */
+    private void initOctaves() {
+        int octaves = 0;
+        for (double currentPoint = startPoint; currentPoint >= 1; currentPoint /= 2.0) {
+            octaves++;
+        }
+        this.octaveScales = new double[octaves];
+        this.octaveWeights = new double[octaves];
+        double currentPoint = startPoint;
+        for (int i = 0; i < octaves; i++) {
+            octaveScales[i] = 1.0 / currentPoint;
+            octaveWeights[i] = currentPoint / startPoint;
+            currentPoint /= 2.0;
+        }
     }
 
     /**
@@ -73,50 +157,51 @@ public class NoiseGenerator {
      */
     public double noise(double x, double factor) {
         double value = 0.0;
-        double currentPoint = startPoint;
+        for (int i = 0; i < octaveScales.length; i++) {
+            value += smoothNoise(x * octaveScales[i]) * octaveWeights[i];
+        }
+        return value * factor;
+    }
 
-        while (currentPoint >= 1) {
-            value += smoothNoise((x / currentPoint), 0, 0) * currentPoint;
-            currentPoint /= 2.0;
+
+    /**
+     * Fills out with the noise of every coordinate in xs, as {@link #noise(double, double)} would up to
+     * float precision, see the class documentation for the exact bound.
+     * This is the preferred way to evaluate a whole chunk of columns.
+     *
+     * @param xs the x coordinates to receive noise for.
+     * @param factor describes how large the noise should be.
+     * @param out the array to write the noise of each coordinate into, at least as long as xs.
+     */
+    public void noise(double[] xs, double factor, float[] out) {
+        int evaluated = vectorKernel == null ? 0 : vectorKernel.noise(xs, factor, out);
+        for (int i = evaluated; i < xs.length; i++) {
+            out[i] = (float) noise(xs[i], factor);
         }
+    }
 
-        return value * factor / startPoint;
+
+    /**
+     * Returns whether bulk calls are evaluated by the vectorized kernel.
+     *
+     * @return True if the Vector API kernel was loaded.
+     */
+    boolean isVectorized() {
+        return vectorKernel != null;
     }
 
+    private double smoothNoise(double x) {
+        // Offset the coordinate by the seed value
+        x += xOffset;
+
+        double floor = Math.floor(x);
+        int X = (int) floor & 255; // FIND UNIT SEGMENT THAT CONTAINS POINT.
+        x -= floor;                // FIND RELATIVE X OF POINT IN SEGMENT.
+
+        double u = fade(x);        // COMPUTE FADE CURVE.
 
-    private double smoothNoise(double x, double y, double z) {
-        // Offset each coordinate by the seed value
-        x += this.seed;
-        y += this.seed;
-        x += this.seed;
-
-        int X = (int) Math.floor(x) & 255; // FIND UNIT CUBE THAT
-        int Y = (int) Math.floor(y) & 255; // CONTAINS POINT.
-        int Z = (int) Math.floor(z) & 255;
-
-        x -= Math.floor(x); // FIND RELATIVE X,Y,Z
-        y -= Math.floor(y); // OF POINT IN CUBE.
-        z -= Math.floor(z);
-
-        double u = fade(x); // COMPUTE FADE CURVES
-        double v = fade(y); // FOR EACH OF X,Y,Z.
-        double w = fade(z);
-
-        int A = p[X] + Y;
-        int AA = p[A] + Z;
-        int AB = p[A + 1] + Z; // HASH COORDINATES OF
-        int B = p[X + 1] + Y;
-        int BA = p[B] + Z;
-        int BB = p[B + 1] + Z; // THE 8 CUBE CORNERS,
-
-        return lerp(w, lerp(v, lerp(u, grad(p[AA], x, y, z),    // AND ADD
-                                grad(p[BA], x - 1, y, z)), // BLENDED
-                        lerp(u, grad(p[AB], x, y - 1, z),    // RESULTS
-                                grad(p[BB], x - 1, y - 1, z))),// FROM 8
-                lerp(v, lerp(u, grad(p[AA + 1], x, y, z - 1),    // CORNERS
-                                grad(p[BA + 1], x - 1, y, z - 1)), // OF CUBE
-                        lerp(u, grad(p[AB + 1], x, y - 1, z - 1),
-                                grad(p[BB + 1], x - 1, y - 1, z - 1))));
+        return lerp(u, slopes[X] * x + offsets[X],                // BLEND THE TWO
+                slopes[X + 1] * (x - 1) + offsets[X + 1]);        // LATTICE POINTS.
     }
 
     private double fade(double t) {
@@ -0,0 +1,20 @@
+package pepse.util;
+
+/**
+ * A bulk evaluator of the 1D terrain noise, used by {@link NoiseGenerator} to fill whole arrays at once.
+ *
+ * @author fanteo12
+ */
+interface NoiseKernel {
+
+    /**
+     * Evaluates the noise of a prefix of the given coordinates.
+     * Implementations may leave a tail of the array unprocessed, which the caller completes.
+     *
+     * @param xs The x-coordinates to evaluate the noise at.
+     * @param factor How large the noise should be, see {@link NoiseGenerator#noise(double, double)}.
+     * @param out The array to write the noise of each coordinate into.
+     * @return The number of leading coordinates that were evaluated.
+     */
+    int noise(double[] xs, double factor, float[] out);
+}
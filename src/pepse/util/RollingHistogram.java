@@ -0,0 +1,132 @@
+package pepse.util;
+
+/**
+ * A histogram of the last samples of a non-negative quantity, such as a duration in nanoseconds.
+ * Samples are counted in logarithmic buckets, eight per power of two, so percentiles are reported
+ * with a relative error below 1/8, and recording a sample costs two array updates. The raw samples of
+ * the window are kept in a ring, so the oldest sample leaves the histogram when a new one is recorded,
+ * and the window can be read back in order.
+ *
+ * @author fanteo12
+ */
+public class RollingHistogram {
+
+    // constants
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS;
+
+    // fields
+    private final long[] samples;
+    private final int[] bucketCounts;
+    private int next;
+    private int count;
+
+    /**
+     * Constructs an empty RollingHistogram.
+     *
+     * @param window The number of most recent samples the histogram covers.
+     */
+    public RollingHistogram(int window) {
+        this.samples = new long[window];
+        this.bucketCounts = new int[BUCKET_COUNT];
+    }
+
+    /**
+     * Records a sample, evicting the oldest one if the window is full.
+     *
+     * @param value The sample. Negative values are recorded as zero.
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        if (count == samples.length) {
+            bucketCounts[bucketOf(samples[next])]--;
+        } else {
+            count++;
+        }
+        samples[next] = value;
+        bucketCounts[bucketOf(value)]++;
+        next = (next + 1) % samples.length;
+    }
+
+    /**
+     * Returns the number of samples in the window.
+     *
+     * @return The sample count.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns a sample of the window.
+     *
+     * @param index The index of the sample, from 0 for the oldest to {@link #getCount()} - 1 for the newest.
+     * @return The sample.
+     */
+    public long get(int index) {
+        return samples[(next - count + index + samples.length) % samples.length];
+    }
+
+    /**
+     * Returns the given percentile of the samples in the window.
+     *
+     * @param fraction The percentile as a fraction, between 0 and 1.
+     * @return The upper bound of the bucket holding the percentile, never above the maximal sample,
+     *         or 0 if the window is empty.
+     */
+    public long percentile(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        int bucket = 0;
+        while (seen + bucketCounts[bucket] < rank) {
+            seen += bucketCounts[bucket];
+            bucket++;
+        }
+        return Math.min(lowerBound(bucket + 1) - 1, getMax());
+    }
+
+    /**
+     * Returns the maximal sample in the window.
+     *
+     * @return The maximal sample, or 0 if the window is empty.
+     */
+    public long getMax() {
+        long max = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, samples[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Returns the bucket of a value: values below the sub-bucket count have their own bucket, and the
+     * rest are bucketed by their highest bit and the bits right below it.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + mantissa;
+    }
+
+    /**
+     * Returns the smallest value of a bucket.
+     */
+    private static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket >> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        if (exponent >= Long.SIZE - 1) {
+            return Long.MAX_VALUE;
+        }
+        long mantissa = (bucket & (SUB_BUCKETS - 1)) | SUB_BUCKETS;
+        return mantissa << (exponent - SUB_BUCKET_BITS);
+    }
+}
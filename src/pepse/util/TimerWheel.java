@@ -0,0 +1,177 @@
+package pepse.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * A hierarchical timer wheel of long keys, counted in integer ticks.
+ * Each level has 64 slots, and a slot of level L covers 64^L ticks; a timer is placed in the lowest
+ * level whose range covers its delay, and moves down a level each time the wheel reaches the start of
+ * its slot, until it expires from level 0. Scheduling and advancing by one tick cost O(1), amortized
+ * over the cascades. Timers are kept in primitive arrays linked into per-slot lists, with freed nodes
+ * reused, so the wheel allocates only when it grows.
+ * Timers cannot be cancelled; a client that reschedules a key should ignore the stale expiries.
+ *
+ * @author fanteo12
+ */
+public class TimerWheel {
+
+    // constants
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY = (1L << (SLOT_BITS * LEVELS)) - 1;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NONE = -1;
+
+    // fields
+    private final int[] heads;
+    private long[] keys;
+    private long[] deadlines;
+    private int[] next;
+    private int freeHead;
+    private int used;
+    private int size;
+    private long currentTick;
+
+    /**
+     * Constructs an empty timer wheel.
+     *
+     * @param startTick The current tick.
+     */
+    public TimerWheel(long startTick) {
+        this.heads = new int[LEVELS * SLOTS];
+        Arrays.fill(heads, NONE);
+        this.keys = new long[INITIAL_CAPACITY];
+        this.deadlines = new long[INITIAL_CAPACITY];
+        this.next = new int[INITIAL_CAPACITY];
+        this.freeHead = NONE;
+        this.currentTick = startTick;
+    }
+
+    /**
+     * Returns the current tick.
+     *
+     * @return The last tick the wheel advanced to.
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Returns the number of scheduled timers.
+     *
+     * @return The timer count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules a timer. A deadline that is not after the current tick expires on the next tick.
+     *
+     * @param key The key reported when the timer expires.
+     * @param deadlineTick The tick at which the timer expires.
+     */
+    public void schedule(long key, long deadlineTick) {
+        int node = allocate();
+        keys[node] = key;
+        deadlines[node] = deadlineTick;
+        insert(node, currentTick + 1);
+        size++;
+    }
+
+    /**
+     * Advances the wheel tick by tick up to the given tick, reporting every timer that expires,
+     * in order of expiry.
+     *
+     * @param tick The tick to advance to. Nothing happens if it is not after the current tick.
+     * @param onExpired Function called with the key of each expired timer.
+     */
+    public void advance(long tick, LongConsumer onExpired) {
+        while (currentTick < tick) {
+            currentTick++;
+            cascade();
+            int slot = (int) (currentTick & SLOT_MASK);
+            int node = heads[slot];
+            heads[slot] = NONE;
+            while (node != NONE) {
+                int following = next[node];
+                if (deadlines[node] <= currentTick) {
+                    long key = keys[node];
+                    release(node);
+                    size--;
+                    onExpired.accept(key);
+                } else {
+                    insert(node, currentTick + 1);
+                }
+                node = following;
+            }
+        }
+    }
+
+    /**
+     * Moves the timers of the higher-level slots that start at the current tick down the wheel.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                return;
+            }
+            int slot = level * SLOTS + (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            int node = heads[slot];
+            heads[slot] = NONE;
+            while (node != NONE) {
+                int following = next[node];
+                // the level 0 slot of the current tick is processed right after the cascade
+                insert(node, currentTick);
+                node = following;
+            }
+        }
+    }
+
+    /**
+     * Links a node into the slot matching its deadline, or the slot of the given tick if that is later.
+     */
+    private void insert(int node, long earliestTick) {
+        long deadline = Math.max(deadlines[node], earliestTick);
+        long delay = Math.min(deadline - currentTick, MAX_DELAY);
+        int level = 0;
+        while (delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        if (deadline - currentTick > MAX_DELAY) {
+            // too far for the wheel: park it in the last slot reached, and place it again from there
+            deadline = currentTick + MAX_DELAY;
+        }
+        int slot = level * SLOTS + (int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+        next[node] = heads[slot];
+        heads[slot] = node;
+    }
+
+    /**
+     * Returns a free node, growing the node arrays if needed.
+     */
+    private int allocate() {
+        if (freeHead != NONE) {
+            int node = freeHead;
+            freeHead = next[node];
+            return node;
+        }
+        if (used == keys.length) {
+            keys = Arrays.copyOf(keys, used * 2);
+            deadlines = Arrays.copyOf(deadlines, used * 2);
+            next = Arrays.copyOf(next, used * 2);
+        }
+        return used++;
+    }
+
+    /**
+     * Returns a node to the free list.
+     */
+    private void release(int node) {
+        next[node] = freeHead;
+        freeHead = node;
+    }
+}
@@ -0,0 +1,94 @@
+package pepse.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A {@link NoiseKernel} vectorized with the JDK Vector API.
+ * It evaluates the same 1D kernel as {@link NoiseGenerator}, one full vector of coordinates at a time,
+ * gathering the lattice slopes and offsets of all lanes at once.
+ * This class is only loaded when the jdk.incubator.vector module is available.
+ *
+ * @author fanteo12
+ */
+final class VectorNoiseKernel implements NoiseKernel {
+
+    // constants
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = VectorSpecies.of(long.class, DOUBLES.vectorShape());
+    private static final VectorSpecies<Integer> INTS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.length() * Integer.SIZE));
+    private static final VectorSpecies<Float> FLOATS =
+            VectorSpecies.of(float.class, VectorShape.forBitSize(DOUBLES.length() * Float.SIZE));
+    private static final long LATTICE_MASK = 255;
+
+    // fields
+    private final double xOffset;
+    private final double[] slopes;
+    private final double[] offsets;
+    private final double[] octaveScales;
+    private final double[] octaveWeights;
+
+    /**
+     * Constructs a kernel over the precomputed tables of a {@link NoiseGenerator}.
+     *
+     * @param xOffset The offset added to every scaled coordinate.
+     * @param slopes The slope of every lattice point.
+     * @param offsets The offset of every lattice point.
+     * @param octaveScales The scale of every octave.
+     * @param octaveWeights The weight of every octave.
+     */
+    VectorNoiseKernel(double xOffset, double[] slopes, double[] offsets,
+                      double[] octaveScales, double[] octaveWeights) {
+        this.xOffset = xOffset;
+        this.slopes = slopes;
+        this.offsets = offsets;
+        this.octaveScales = octaveScales;
+        this.octaveWeights = octaveWeights;
+    }
+
+    @Override
+    public int noise(double[] xs, double factor, float[] out) {
+        int[] lattice = new int[INTS.length()];
+        int upperBound = DOUBLES.loopBound(xs.length);
+        for (int i = 0; i < upperBound; i += DOUBLES.length()) {
+            DoubleVector x = DoubleVector.fromArray(DOUBLES, xs, i);
+            DoubleVector value = DoubleVector.zero(DOUBLES);
+            for (int octave = 0; octave < octaveScales.length; octave++) {
+                value = value.add(smoothNoise(x.mul(octaveScales[octave]), lattice).mul(octaveWeights[octave]));
+            }
+            value.mul(factor).convertShape(VectorOperators.D2F, FLOATS, 0)
+                    .reinterpretAsFloats().intoArray(out, i);
+        }
+        return upperBound;
+    }
+
+    /**
+     * Evaluates the 1D kernel of all lanes, see NoiseGenerator#smoothNoise.
+     */
+    private DoubleVector smoothNoise(DoubleVector x, int[] lattice) {
+        x = x.add(xOffset);
+
+        // floor, by truncating and correcting the lanes that were rounded up
+        LongVector truncated = (LongVector) x.convertShape(VectorOperators.D2L, LONGS, 0);
+        DoubleVector floor = (DoubleVector) truncated.convertShape(VectorOperators.L2D, DOUBLES, 0);
+        VectorMask<Double> roundedUp = floor.compare(VectorOperators.GT, x);
+        floor = floor.sub(1, roundedUp);
+        truncated = truncated.sub(1, roundedUp.cast(LONGS));
+
+        truncated.and(LATTICE_MASK).convertShape(VectorOperators.L2I, INTS, 0)
+                .reinterpretAsInts().intoArray(lattice, 0);
+        x = x.sub(floor);
+
+        DoubleVector u = x.mul(x).mul(x).mul(x.mul(x.mul(6).sub(15)).add(10));
+        DoubleVector left = DoubleVector.fromArray(DOUBLES, slopes, 0, lattice, 0).mul(x)
+                .add(DoubleVector.fromArray(DOUBLES, offsets, 0, lattice, 0));
+        DoubleVector right = DoubleVector.fromArray(DOUBLES, slopes, 1, lattice, 0).mul(x.sub(1))
+                .add(DoubleVector.fromArray(DOUBLES, offsets, 1, lattice, 0));
+        return left.add(u.mul(right.sub(left)));
+    }
+}
@@ -10,11 +10,15 @@ import pepse.util.Constants;
 
 import java.awt.event.KeyEvent;
 import java.util.ArrayList;
+import java.util.function.BiFunction;
 
 /**
  * The Avatar class represents the player-controlled character in the game.
  * It supports movement, jumping, energy management, and interactions with other game objects.
  * It implements the Observer design pattern.
+ * The avatar either rests on ground blocks through the physics engine, or, when given a ground
+ * surface function, resolves its ground contact analytically from the terrain heights every frame,
+ * in which case the terrain blocks do not need to take part in collisions at all.
  *
  * @author fanteo12
  */
@@ -46,12 +50,14 @@ public class Avatar extends GameObject{
     private static final float ENERGY_RUN_REDUCE = 0.5f;
     private static final float ENERGY_JUMP_REDUCE = 10f;
     private static final float ENERGY_FRUIT_INCREASE = 10f;
+    private static final float STEP_TOLERANCE = 0.5f;
 
     // fields
     private final UserInputListener inputListener;
     private final AnimationRenderable idleAnimation;
     private final AnimationRenderable runAnimation;
     private final AnimationRenderable jumpAnimation;
+    private final BiFunction<Float, Float, Float> groundSurface;
     private float energy;
     private static ArrayList<Observer> observerList;
 
@@ -65,6 +71,23 @@ public class Avatar extends GameObject{
     public Avatar(Vector2 topLeftCorner,
                   UserInputListener inputListener,
                   ImageReader imageReader){
+        this(topLeftCorner, inputListener, imageReader, null);
+    }
+
+    /**
+     * Constructs an Avatar object that resolves its ground contact from the given surface function,
+     * instead of colliding with ground blocks.
+     *
+     * @param topLeftCorner The initial position of the avatar.
+     * @param inputListener Listener for user input.
+     * @param imageReader Reader for loading animation images.
+     * @param groundSurface Function returning the ground surface height under a horizontal span given
+     *                      by its minimal and maximal x-coordinates, or null to collide with ground blocks.
+     */
+    public Avatar(Vector2 topLeftCorner,
+                  UserInputListener inputListener,
+                  ImageReader imageReader,
+                  BiFunction<Float, Float, Float> groundSurface){
         super(topLeftCorner,new Vector2(Constants.AVATAR_SIZE,Constants.AVATAR_SIZE), new AnimationRenderable(idlePaths,imageReader,true,0.07));
 
         physics().preventIntersectionsFromDirection(Vector2.ZERO);
@@ -74,6 +97,7 @@ public class Avatar extends GameObject{
         this.idleAnimation = new AnimationRenderable(idlePaths,imageReader,true,TIME_BETWEEN_CLIPS);
         this.runAnimation = new AnimationRenderable(runPaths,imageReader,true,TIME_BETWEEN_CLIPS);
         this.jumpAnimation = new AnimationRenderable(jumpPaths,imageReader,true,TIME_BETWEEN_CLIPS);
+        this.groundSurface = groundSurface;
         energy = MAX_ENERGY;
         observerList = new ArrayList<>();
         this.setTag(Constants.AVATAR_TAG);
@@ -102,6 +126,22 @@ public class Avatar extends GameObject{
         }
     }
 
+    /**
+     * Gives the avatar the energy of an eaten fruit.
+     */
+    public void eatFruit() {
+        addEnergy(ENERGY_FRUIT_INCREASE);
+    }
+
+    /**
+     * Sets the energy level of the avatar, within the allowed range.
+     *
+     * @param energy The new energy level.
+     */
+    public void setEnergy(float energy) {
+        this.energy = Math.max(0, Math.min(MAX_ENERGY, energy));
+    }
+
     /**
      * Updates the avatar's state and handles input-driven actions.
      *
@@ -109,7 +149,11 @@ public class Avatar extends GameObject{
      */
     @Override
     public void update(float deltaTime) {
+        Vector2 previousTopLeft = getTopLeftCorner();
         super.update(deltaTime);
+        if (groundSurface != null) {
+            resolveGroundContact(previousTopLeft);
+        }
         float xVel = 0;
 
         if(inputListener.isKeyPressed(KeyEvent.VK_LEFT) && energy >= ENERGY_RUN_REDUCE) {
@@ -131,6 +175,34 @@ public class Avatar extends GameObject{
         }
     }
 
+    /**
+     * Resolves the contact with the ground surface after the avatar moved this frame.
+     * The test is swept: it compares the position before and after the move against the surface,
+     * so a fall of any speed lands on the surface instead of passing through it.
+     * A column whose surface is above the avatar's previous bottom acts as a wall.
+     */
+    private void resolveGroundContact(Vector2 previousTopLeft) {
+        float width = getDimensions().x();
+        float height = getDimensions().y();
+        float previousBottom = previousTopLeft.y() + height;
+        float x = getTopLeftCorner().x();
+        float y = getTopLeftCorner().y();
+
+        // moving into a higher column is blocked, like the side of a ground block
+        if (x != previousTopLeft.x() && groundSurface.apply(x, x + width) < previousBottom - STEP_TOLERANCE) {
+            x = previousTopLeft.x();
+        }
+
+        float surface = groundSurface.apply(x, x + width);
+        if (getVelocity().y() >= 0 && y + height >= surface) {
+            y = surface - height;
+            transform().setVelocityY(0);
+        }
+        if (x != getTopLeftCorner().x() || y != getTopLeftCorner().y()) {
+            setTopLeftCorner(new Vector2(x, y));
+        }
+    }
+
     /**
      * Handles the avatar's resting behavior, regenerating energy.
      */
@@ -199,9 +271,5 @@ public class Avatar extends GameObject{
         if(other.getTag().equals(Constants.GROUND_TAG)){
             this.transform().setVelocityY(0);
         }
-
-        if (other.getTag().equals(Constants.FRUIT_TAG)){
-            addEnergy(ENERGY_FRUIT_INCREASE);
-        }
     }
 }
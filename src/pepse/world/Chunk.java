@@ -0,0 +1,164 @@
+package pepse.world;
+
+import danogl.GameObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * The Chunk class holds every game object that was generated for one horizontal slice of the world,
+ * together with the layer each object belongs to.
+ * Keeping the objects per chunk allows the whole slice to be added or removed in time proportional
+ * to its own size, regardless of how many objects exist in the rest of the world.
+ * The objects can also be added gradually, in which case the chunk remembers how many of them
+ * are already in the game.
+ *
+ * @author fanteo12
+ */
+public class Chunk {
+
+    // constants
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INDEX_BITS = 20;
+    private static final int DISTANCE_BITS = 20;
+    private static final long FIELD_MASK = (1L << INDEX_BITS) - 1;
+
+    // fields
+    private final int index;
+    private final ArrayList<GameObject> objects;
+    private int[] layers;
+    private int inserted;
+
+    /**
+     * Constructs an empty chunk.
+     *
+     * @param index The index of the chunk, see {@link ChunkManager#chunkIndexAt(float)}.
+     */
+    public Chunk(int index) {
+        this.index = index;
+        this.objects = new ArrayList<>(INITIAL_CAPACITY);
+        this.layers = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns the index of the chunk.
+     *
+     * @return The chunk index.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Registers a game object as part of this chunk.
+     *
+     * @param gameObject The game object to register.
+     * @param layer The layer the game object should be added to.
+     */
+    public void add(GameObject gameObject, int layer) {
+        if (objects.size() == layers.length) {
+            layers = Arrays.copyOf(layers, layers.length * 2);
+        }
+        layers[objects.size()] = layer;
+        objects.add(gameObject);
+    }
+
+    /**
+     * Returns the game objects of the chunk.
+     *
+     * @return An unmodifiable view of the objects.
+     */
+    public List<GameObject> getObjects() {
+        return Collections.unmodifiableList(objects);
+    }
+
+    /**
+     * Returns the number of game objects in the chunk.
+     *
+     * @return The object count.
+     */
+    public int size() {
+        return objects.size();
+    }
+
+    /**
+     * Returns whether every object of the chunk was added to the game.
+     *
+     * @return True if no object is waiting to be added.
+     */
+    public boolean isFullyInserted() {
+        return inserted == objects.size();
+    }
+
+    /**
+     * Adds all the objects of the chunk that are not in the game yet.
+     *
+     * @param addGameObject Function to add game objects to the game at a specific layer.
+     */
+    public void addTo(BiConsumer<GameObject, Integer> addGameObject) {
+        insertNext(addGameObject, objects.size());
+    }
+
+    /**
+     * Adds up to the given number of objects that are not in the game yet, in insertion order.
+     *
+     * @param addGameObject Function to add game objects to the game at a specific layer.
+     * @param count The maximal number of objects to add.
+     * @return The number of objects added.
+     */
+    public int insertNext(BiConsumer<GameObject, Integer> addGameObject, int count) {
+        int end = Math.min(objects.size(), inserted + count);
+        int added = end - inserted;
+        for (; inserted < end; inserted++) {
+            addGameObject.accept(objects.get(inserted), layers[inserted]);
+        }
+        return added;
+    }
+
+    /**
+     * Removes the objects of the chunk that were added to the game.
+     *
+     * @param removeGameObject Function to remove game objects from a specific layer of the game.
+     */
+    public void removeFrom(BiConsumer<GameObject, Integer> removeGameObject) {
+        for (int i = 0; i < inserted; i++) {
+            removeGameObject.accept(objects.get(i), layers[i]);
+        }
+        inserted = 0;
+    }
+
+    /**
+     * Reorders the objects that are not in the game yet, so that the objects in the given layers come
+     * first, and within each group the objects nearest to the given x-coordinate come first.
+     *
+     * @param x The x-coordinate to order the objects by.
+     * @param firstLayers Predicate on a layer, true for the layers whose objects should be added first.
+     */
+    public void sortForInsertion(float x, IntPredicate firstLayers) {
+        int count = objects.size() - inserted;
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            int entry = inserted + i;
+            long group = firstLayers.test(layers[entry]) ? 0 : 1;
+            long distance = Math.min(FIELD_MASK, (long) Math.abs(objects.get(entry).getCenter().x() - x));
+            keys[i] = (group << (DISTANCE_BITS + INDEX_BITS)) | (distance << INDEX_BITS) | entry;
+        }
+        Arrays.sort(keys);
+
+        GameObject[] sortedObjects = new GameObject[count];
+        int[] sortedLayers = new int[count];
+        for (int i = 0; i < count; i++) {
+            int entry = (int) (keys[i] & FIELD_MASK);
+            sortedObjects[i] = objects.get(entry);
+            sortedLayers[i] = layers[entry];
+        }
+        for (int i = 0; i < count; i++) {
+            objects.set(inserted + i, sortedObjects[i]);
+            layers[inserted + i] = sortedLayers[i];
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package pepse.world;
+
+/**
+ * The ChunkData class holds the plain data a chunk is built from, which is prepared off the game thread:
+ * the {@link ChunkRecord} of the chunk, and the image of its ground if it was baked in advance.
+ * It holds no game objects, so preparing it touches no state of the game.
+ *
+ * @author fanteo12
+ */
+public class ChunkData {
+
+    // fields
+    private final int index;
+    private final ChunkRecord record;
+    private final ChunkImageCache.Entry bakedGround;
+
+    /**
+     * Constructs the data of a chunk.
+     *
+     * @param index The index of the chunk.
+     * @param record The heights, tree locations and block colors of the chunk.
+     * @param bakedGround The baked image of the ground of the chunk, or null if it was not baked.
+     */
+    public ChunkData(int index, ChunkRecord record, ChunkImageCache.Entry bakedGround) {
+        this.index = index;
+        this.record = record;
+        this.bakedGround = bakedGround;
+    }
+
+    /**
+     * Returns the index of the chunk.
+     *
+     * @return The chunk index.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the heights, tree locations and block colors of the chunk.
+     *
+     * @return The chunk record.
+     */
+    public ChunkRecord getRecord() {
+        return record;
+    }
+
+    /**
+     * Returns the baked image of the ground of the chunk.
+     *
+     * @return The baked image, or null if it was not baked in advance.
+     */
+    public ChunkImageCache.Entry getBakedGround() {
+        return bakedGround;
+    }
+}
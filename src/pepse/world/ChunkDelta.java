@@ -0,0 +1,129 @@
+package pepse.world;
+
+import java.util.Arrays;
+
+/**
+ * The ChunkDelta class holds the changes the player made to the generated content of one chunk:
+ * which of its fruits were eaten, and when each eaten fruit grows back. Fruits are identified by
+ * their index within the chunk. Eaten fruits are kept in a bitmask, and the regrowth times in an
+ * array indexed by fruit, so a chunk the player never touched costs a single empty word.
+ * The delta remembers whether it changed since it was last saved.
+ *
+ * @author fanteo12
+ */
+public class ChunkDelta {
+
+    // fields
+    private long[] eaten;
+    private double[] regrowthTimes;
+    private int eatenCount;
+    private boolean dirty;
+
+    /**
+     * Constructs an empty delta, in which no fruit was eaten.
+     */
+    public ChunkDelta() {
+        this.eaten = new long[1];
+        this.regrowthTimes = new double[Long.SIZE];
+    }
+
+    /**
+     * Returns whether a fruit is eaten.
+     *
+     * @param fruit The index of the fruit in the chunk.
+     * @return True if the fruit is eaten and has not grown back yet.
+     */
+    public boolean isEaten(int fruit) {
+        int word = fruit / Long.SIZE;
+        return word < eaten.length && (eaten[word] & (1L << fruit)) != 0;
+    }
+
+    /**
+     * Returns the time at which an eaten fruit grows back.
+     *
+     * @param fruit The index of an eaten fruit in the chunk.
+     * @return The regrowth time, on the game clock.
+     */
+    public double getRegrowthTime(int fruit) {
+        return regrowthTimes[fruit];
+    }
+
+    /**
+     * Marks a fruit as eaten, growing back at the given time.
+     *
+     * @param fruit The index of the fruit in the chunk.
+     * @param regrowthTime The time at which the fruit grows back, on the game clock.
+     */
+    public void markEaten(int fruit, double regrowthTime) {
+        int word = fruit / Long.SIZE;
+        if (word >= eaten.length) {
+            eaten = Arrays.copyOf(eaten, Math.max(word + 1, eaten.length * 2));
+            regrowthTimes = Arrays.copyOf(regrowthTimes, eaten.length * Long.SIZE);
+        }
+        if (!isEaten(fruit)) {
+            eatenCount++;
+        }
+        eaten[word] |= 1L << fruit;
+        regrowthTimes[fruit] = regrowthTime;
+        dirty = true;
+    }
+
+    /**
+     * Marks a fruit as grown back.
+     *
+     * @param fruit The index of the fruit in the chunk.
+     */
+    public void clear(int fruit) {
+        if (isEaten(fruit)) {
+            eaten[fruit / Long.SIZE] &= ~(1L << fruit);
+            eatenCount--;
+            dirty = true;
+        }
+    }
+
+    /**
+     * Returns the index of the first eaten fruit at or after the given index.
+     *
+     * @param from The index to start searching from.
+     * @return The index of the next eaten fruit, or -1 if there is none.
+     */
+    public int nextEaten(int from) {
+        int word = from / Long.SIZE;
+        if (word >= eaten.length) {
+            return -1;
+        }
+        long bits = eaten[word] & (-1L << from);
+        while (bits == 0) {
+            if (++word == eaten.length) {
+                return -1;
+            }
+            bits = eaten[word];
+        }
+        return word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Returns the number of eaten fruits.
+     *
+     * @return The eaten fruit count.
+     */
+    public int getEatenCount() {
+        return eatenCount;
+    }
+
+    /**
+     * Returns whether the delta changed since it was last saved.
+     *
+     * @return True if the delta has unsaved changes.
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Marks the delta as saved.
+     */
+    public void markSaved() {
+        dirty = false;
+    }
+}
@@ -0,0 +1,127 @@
+package pepse.world;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The ChunkImageCache class keeps the baked images of recently loaded chunks, so that revisiting a
+ * region reuses its images instead of rasterizing them again. Entries are keyed by the world seed and
+ * the chunk index, and the least recently used entry is evicted once the cache is full.
+ * All accesses are synchronized, since chunks are generated on worker threads.
+ *
+ * @author fanteo12
+ */
+public class ChunkImageCache {
+
+    // fields
+    private final LinkedHashMap<Long, Entry> entries;
+
+    /**
+     * The Entry class holds a baked chunk image, together with where it is drawn in the world.
+     */
+    public static class Entry {
+
+        // fields
+        private final Renderable renderable;
+        private final Vector2 topLeftCorner;
+        private final Vector2 dimensions;
+
+        /**
+         * Constructs a cache entry.
+         *
+         * @param renderable The baked image.
+         * @param topLeftCorner The world position of the top left corner of the image.
+         * @param dimensions The size of the image in the world.
+         */
+        public Entry(Renderable renderable, Vector2 topLeftCorner, Vector2 dimensions) {
+            this.renderable = renderable;
+            this.topLeftCorner = topLeftCorner;
+            this.dimensions = dimensions;
+        }
+
+        /**
+         * Returns the baked image.
+         *
+         * @return The renderable of the image.
+         */
+        public Renderable getRenderable() {
+            return renderable;
+        }
+
+        /**
+         * Returns the world position of the top left corner of the image.
+         *
+         * @return The top left corner.
+         */
+        public Vector2 getTopLeftCorner() {
+            return topLeftCorner;
+        }
+
+        /**
+         * Returns the size of the image in the world.
+         *
+         * @return The dimensions.
+         */
+        public Vector2 getDimensions() {
+            return dimensions;
+        }
+    }
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param capacity The maximal number of cached images.
+     */
+    public ChunkImageCache(int capacity) {
+        this.entries = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the key of a chunk image.
+     *
+     * @param seed The world seed.
+     * @param chunkIndex The chunk index.
+     * @return The seed in the upper half and the chunk index in the lower half.
+     */
+    public static long keyOf(int seed, int chunkIndex) {
+        return ((long) seed << Integer.SIZE) | (chunkIndex & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the cached image with the given key.
+     *
+     * @param key The key of the image, see {@link #keyOf(int, int)}.
+     * @return The cached entry, or null if it is not in the cache.
+     */
+    public synchronized Entry get(long key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Returns whether an image is cached, without counting as a use of it.
+     *
+     * @param key The key of the image, see {@link #keyOf(int, int)}.
+     * @return True if the image is in the cache.
+     */
+    public synchronized boolean contains(long key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Caches an image, evicting the least recently used one if the cache is full.
+     *
+     * @param key The key of the image, see {@link #keyOf(int, int)}.
+     * @param entry The entry to cache.
+     */
+    public synchronized void put(long key, Entry entry) {
+        entries.put(key, entry);
+    }
+}
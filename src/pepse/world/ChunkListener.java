@@ -0,0 +1,24 @@
+package pepse.world;
+
+/**
+ * The ChunkListener interface defines a contract for objects that keep per-chunk state,
+ * and should be notified when the {@link ChunkManager} loads or unloads a chunk.
+ *
+ * @author fanteo12
+ */
+public interface ChunkListener {
+
+    /**
+     * This method is called on the game thread when a chunk is loaded.
+     *
+     * @param chunk The loaded chunk.
+     */
+    void onChunkLoaded(Chunk chunk);
+
+    /**
+     * This method is called on the game thread when a chunk is unloaded.
+     *
+     * @param chunk The unloaded chunk.
+     */
+    void onChunkUnloaded(Chunk chunk);
+}
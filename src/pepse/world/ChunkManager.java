@@ -0,0 +1,363 @@
+package pepse.world;
+
+import danogl.GameObject;
+import pepse.events.ChunkUnloadEvent;
+import pepse.util.FrameProfiler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * The ChunkManager class owns the load/unload state of the world chunks.
+ * The world is split into fixed-width chunks, and only the chunks within a given radius around
+ * a center point are kept in the game. Each chunk is loaded and unloaded as a whole, so crossing
+ * a chunk boundary costs time proportional to the objects of the affected chunks only.
+ * Generating a chunk has two steps: preparing its plain {@link ChunkData}, which creates no game objects
+ * and can run on any thread, and building its game objects from that data, on the game thread.
+ * The data of the chunks one chunk ahead of the loaded range is prepared in advance on a small pool of
+ * worker threads, with one pending result per chunk. Loading a chunk claims its result, waiting for the
+ * worker if it is still running, so a chunk is never prepared twice; only a chunk that was never
+ * requested is prepared on the game thread. The objects of a loaded chunk are streamed into the game by an
+ * {@link InsertionScheduler}, within a per-frame budget. Registered {@link ChunkListener}s are
+ * notified whenever a chunk is loaded or unloaded.
+ * Only the loaded chunks that overlap the camera view, plus a wake margin, are active. The objects of
+ * the other loaded chunks are dormant: they are held by their chunk but removed from the game, so they
+ * are neither updated nor checked for collisions, and are streamed back in when they approach the view.
+ * Every step of an update is timed in its own section of a {@link FrameProfiler}: unloading, loading,
+ * waking and putting chunks to sleep, and inserting objects.
+ *
+ * @author fanteo12
+ */
+public class ChunkManager {
+
+    // constants
+    private static final int BLOCKS_PER_CHUNK = 26;
+    private static final int CHUNK_SIZE = BLOCKS_PER_CHUNK * Block.getBlockSize();
+    private static final int PREFETCH_CHUNKS = 1;
+    private static final int MAX_WORKERS = 2;
+    private static final String WORKER_NAME = "chunk-generator";
+    private static final String UNLOAD_SECTION = "chunks.unload";
+    private static final String LOAD_SECTION = "chunks.load";
+    private static final String WAKE_SECTION = "chunks.wake";
+    private static final String INSERT_SECTION = "chunks.insert";
+
+    // fields
+    private final IntFunction<ChunkData> prepareChunk;
+    private final Function<ChunkData, Chunk> buildChunk;
+    private final InsertionScheduler insertionScheduler;
+    private final BiConsumer<GameObject, Integer> removeGameObject;
+    private final float loadRadius;
+    private final float wakeMargin;
+    private final HashMap<Integer, Chunk> loadedChunks;
+    private final HashMap<Integer, Future<ChunkData>> pendingChunks;
+    private final ExecutorService workers;
+    private final ArrayList<ChunkListener> listeners;
+    private final FrameProfiler profiler;
+    private final int unloadSection;
+    private final int loadSection;
+    private final int wakeSection;
+    private final int insertSection;
+    private int minLoaded;
+    private int maxLoaded;
+    private int minActive;
+    private int maxActive;
+
+    /**
+     * Constructs a ChunkManager with no loaded chunks.
+     *
+     * @param prepareChunk Function that prepares the data of the chunk with the given index. It is called
+     *                     on worker threads, so it must not create game objects or change game state.
+     * @param buildChunk Function that builds the game objects of a chunk from its data, on the game thread.
+     * @param insertionScheduler The scheduler that adds the objects of loaded chunks to the game.
+     * @param removeGameObject Function to remove game objects from a specific layer of the game.
+     * @param loadRadius The distance from the center of the view in which chunks are kept loaded.
+     * @param wakeMargin The distance from the edges of the view in which loaded chunks are active.
+     * @param profiler The profiler the steps of every update are timed in.
+     */
+    public ChunkManager(IntFunction<ChunkData> prepareChunk, Function<ChunkData, Chunk> buildChunk,
+                        InsertionScheduler insertionScheduler, BiConsumer<GameObject, Integer> removeGameObject,
+                        float loadRadius, float wakeMargin, FrameProfiler profiler) {
+        this.prepareChunk = prepareChunk;
+        this.buildChunk = buildChunk;
+        this.insertionScheduler = insertionScheduler;
+        this.removeGameObject = removeGameObject;
+        this.loadRadius = loadRadius;
+        this.wakeMargin = wakeMargin;
+        this.loadedChunks = new HashMap<>();
+        this.pendingChunks = new HashMap<>();
+        int workerCount = Math.max(1, Math.min(MAX_WORKERS, Runtime.getRuntime().availableProcessors() - 1));
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread worker = new Thread(runnable, WORKER_NAME);
+            worker.setDaemon(true);
+            return worker;
+        });
+        this.listeners = new ArrayList<>();
+        this.profiler = profiler;
+        this.unloadSection = profiler.addSection(UNLOAD_SECTION);
+        this.loadSection = profiler.addSection(LOAD_SECTION);
+        this.wakeSection = profiler.addSection(WAKE_SECTION);
+        this.insertSection = profiler.addSection(INSERT_SECTION);
+        this.minLoaded = 0;
+        this.maxLoaded = -1;
+        this.minActive = 0;
+        this.maxActive = -1;
+    }
+
+    /**
+     * Returns the width of a chunk in pixels. It is always a multiple of the block size.
+     *
+     * @return The chunk size.
+     */
+    public static int getChunkSize() {
+        return CHUNK_SIZE;
+    }
+
+    /**
+     * Returns the index of the chunk containing the given x-coordinate.
+     *
+     * @param x The x-coordinate.
+     * @return The index of the chunk containing x.
+     */
+    public static int chunkIndexAt(float x) {
+        return (int) Math.floor(x / CHUNK_SIZE);
+    }
+
+    /**
+     * Returns the x-coordinate of the left edge of a chunk.
+     *
+     * @param index The chunk index.
+     * @return The minimal x-coordinate of the chunk.
+     */
+    public static int chunkMinX(int index) {
+        return index * CHUNK_SIZE;
+    }
+
+    /**
+     * Registers a listener to be notified when chunks are loaded or unloaded.
+     *
+     * @param listener The listener to register.
+     */
+    public void addListener(ChunkListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Loads the chunks that entered the radius around the center of the view, and unloads those that
+     * left it. The data of the chunks just outside the radius is requested from the workers ahead of time.
+     * Loaded chunks that approach the view are woken, and those that moved away from it become dormant.
+     * When no chunk boundary was crossed since the last call, only pending objects are added, within
+     * the insertion budget.
+     *
+     * @param viewMinX The x-coordinate of the left edge of the view.
+     * @param viewMaxX The x-coordinate of the right edge of the view.
+     */
+    public void update(float viewMinX, float viewMaxX) {
+        float centerX = (viewMinX + viewMaxX) / 2;
+        int newMin = chunkIndexAt(centerX - loadRadius);
+        int newMax = chunkIndexAt(centerX + loadRadius);
+        boolean crossed = newMin != minLoaded || newMax != maxLoaded;
+
+        // every section is timed on every call, so the rows of the profiler dump line up
+        profiler.start(unloadSection);
+        if (crossed) {
+            unloadOutside(newMin, newMax);
+        }
+        profiler.stop(unloadSection);
+
+        profiler.start(loadSection);
+        if (crossed) {
+            loadInside(newMin, newMax);
+        }
+        profiler.stop(loadSection);
+
+        profiler.start(wakeSection);
+        updateActiveRange(viewMinX, viewMaxX, centerX);
+        profiler.stop(wakeSection);
+
+        profiler.start(insertSection);
+        insertionScheduler.update(centerX);
+        profiler.stop(insertSection);
+    }
+
+    /**
+     * Adds all the objects of the loaded chunks to the game at once, regardless of the insertion budget.
+     */
+    public void finishInsertions() {
+        insertionScheduler.flush();
+    }
+
+    /**
+     * Unloads the loaded chunks outside the new loaded range.
+     */
+    private void unloadOutside(int newMin, int newMax) {
+        for (int i = minLoaded; i <= maxLoaded; i++) {
+            if (i < newMin || i > newMax) {
+                unload(i);
+            }
+        }
+    }
+
+    /**
+     * Loads the chunks that entered the new loaded range, and requests the data of the chunks just
+     * outside it from the workers.
+     */
+    private void loadInside(int newMin, int newMax) {
+        for (int i = newMin; i <= newMax; i++) {
+            if (i < minLoaded || i > maxLoaded) {
+                load(i);
+            }
+        }
+        minLoaded = newMin;
+        maxLoaded = newMax;
+
+        discardPendingChunks();
+        for (int i = 1; i <= PREFETCH_CHUNKS; i++) {
+            requestChunk(minLoaded - i);
+            requestChunk(maxLoaded + i);
+        }
+    }
+
+    /**
+     * Wakes the loaded chunks that entered the view and its margin, and puts to sleep those that left it.
+     * The active range is always contained in the loaded range.
+     */
+    private void updateActiveRange(float viewMinX, float viewMaxX, float centerX) {
+        int newMin = Math.max(minLoaded, chunkIndexAt(viewMinX - wakeMargin));
+        int newMax = Math.min(maxLoaded, chunkIndexAt(viewMaxX + wakeMargin));
+        if (newMin == minActive && newMax == maxActive) {
+            return;
+        }
+
+        // chunks unloaded in this update were already put to sleep, and are skipped
+        for (int i = minActive; i <= maxActive; i++) {
+            Chunk chunk = loadedChunks.get(i);
+            if (chunk != null && (i < newMin || i > newMax)) {
+                sleep(chunk);
+            }
+        }
+        for (int i = newMin; i <= newMax; i++) {
+            if (i < minActive || i > maxActive) {
+                insertionScheduler.schedule(loadedChunks.get(i), centerX);
+            }
+        }
+        minActive = newMin;
+        maxActive = newMax;
+    }
+
+    /**
+     * Returns whether the chunk with the given index is loaded.
+     *
+     * @param index The chunk index.
+     * @return True if the chunk is loaded.
+     */
+    public boolean isLoaded(int index) {
+        return loadedChunks.containsKey(index);
+    }
+
+    /**
+     * Returns whether the chunk with the given index is loaded and its objects are in the game,
+     * as opposed to dormant or unloaded.
+     *
+     * @param index The chunk index.
+     * @return True if the chunk is active.
+     */
+    public boolean isActive(int index) {
+        return index >= minActive && index <= maxActive && loadedChunks.containsKey(index);
+    }
+
+    /**
+     * Asks a worker to prepare the data of a chunk, unless it is loaded or already requested.
+     */
+    private void requestChunk(int index) {
+        if (loadedChunks.containsKey(index) || pendingChunks.containsKey(index)) {
+            return;
+        }
+        pendingChunks.put(index, workers.submit(() -> prepareChunk.apply(index)));
+    }
+
+    /**
+     * Cancels the requests of the chunks that are no longer in the prefetch range. Requests a worker
+     * already started are finished, and their result dropped.
+     */
+    private void discardPendingChunks() {
+        Iterator<Map.Entry<Integer, Future<ChunkData>>> iterator = pendingChunks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Future<ChunkData>> entry = iterator.next();
+            if (!isInPrefetchRange(entry.getKey())) {
+                entry.getValue().cancel(false);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns whether a chunk is loaded or within the prefetch distance of the loaded range.
+     */
+    private boolean isInPrefetchRange(int index) {
+        return index >= minLoaded - PREFETCH_CHUNKS && index <= maxLoaded + PREFETCH_CHUNKS;
+    }
+
+    /**
+     * Makes a chunk loaded but dormant, building its objects from the data prepared by its worker.
+     * Its objects are added to the game once it becomes active.
+     */
+    private void load(int index) {
+        Chunk chunk = buildChunk.apply(claimData(index));
+        loadedChunks.put(index, chunk);
+        for (ChunkListener listener : listeners) {
+            listener.onChunkLoaded(chunk);
+        }
+    }
+
+    /**
+     * Returns the data of a chunk, waiting for its worker if it was requested and is not done yet.
+     * A chunk that was not requested, or whose worker failed, is prepared on the game thread.
+     */
+    private ChunkData claimData(int index) {
+        Future<ChunkData> pending = pendingChunks.remove(index);
+        if (pending != null) {
+            try {
+                return pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | CancellationException e) {
+                // prepared again below, which reports the failure on the game thread if it persists
+            }
+        }
+        return prepareChunk.apply(index);
+    }
+
+    /**
+     * Removes the objects of a chunk from the game, keeping them in the chunk.
+     */
+    private void sleep(Chunk chunk) {
+        insertionScheduler.cancel(chunk);
+        chunk.removeFrom(removeGameObject);
+    }
+
+    /**
+     * Removes the objects of a chunk from the game and forgets the chunk.
+     */
+    private void unload(int index) {
+        Chunk chunk = loadedChunks.remove(index);
+        if (chunk != null) {
+            ChunkUnloadEvent event = new ChunkUnloadEvent();
+            event.start(index);
+            sleep(chunk);
+            for (ChunkListener listener : listeners) {
+                listener.onChunkUnloaded(chunk);
+            }
+            event.finish(chunk.size());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package pepse.world;
+
+/**
+ * The ChunkRecord class holds the generated data of a chunk that is enough to rebuild its content
+ * without running the world generation again: the ground height of each column, the locations of its
+ * trees, and the color of each ground block of its baked image.
+ *
+ * @author fanteo12
+ */
+public class ChunkRecord {
+
+    // fields
+    private final float[] columnHeights;
+    private final float[] treeLocations;
+    private final int[] blockColors;
+
+    /**
+     * Constructs a chunk record.
+     *
+     * @param columnHeights The ground height of each column of the chunk, from left to right.
+     * @param treeLocations The x-coordinates of the trees of the chunk.
+     * @param blockColors The RGB color of each ground block, column by column from the top.
+     */
+    public ChunkRecord(float[] columnHeights, float[] treeLocations, int[] blockColors) {
+        this.columnHeights = columnHeights;
+        this.treeLocations = treeLocations;
+        this.blockColors = blockColors;
+    }
+
+    /**
+     * Returns the ground height of each column of the chunk.
+     *
+     * @return The column heights, from left to right.
+     */
+    public float[] getColumnHeights() {
+        return columnHeights;
+    }
+
+    /**
+     * Returns the locations of the trees of the chunk.
+     *
+     * @return The x-coordinates of the trees.
+     */
+    public float[] getTreeLocations() {
+        return treeLocations;
+    }
+
+    /**
+     * Returns the color of each ground block of the chunk.
+     *
+     * @return The RGB colors, column by column from the top.
+     */
+    public int[] getBlockColors() {
+        return blockColors;
+    }
+}
@@ -0,0 +1,181 @@
+package pepse.world;
+
+import pepse.util.AtomicFiles;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * The ChunkStore class persists {@link ChunkRecord}s on disk, one small binary file per seed and chunk
+ * index, so that revisiting a chunk or restarting the game rebuilds it without generating it again.
+ * Files are read through a read-only memory-mapped view, and the payload is copied out of it into the
+ * record, so no reference to the mapping outlives the read. On Windows, where a file cannot be replaced
+ * while any mapping of it is alive and Java cannot unmap one on demand, files are read into memory
+ * instead.
+ * Each file starts with a header holding a magic number, the format version, the seed, a fingerprint
+ * of the generation parameters, the chunk index, the payload length and a CRC32 of the payload.
+ * A missing, corrupt or stale file is reported as a miss, and the caller is expected to generate the
+ * chunk and save it again.
+ * Files are written with {@link AtomicFiles}, so concurrent writers of the same chunk and interrupted
+ * writes never leave a partial file behind.
+ *
+ * @author fanteo12
+ */
+public class ChunkStore {
+
+    // constants
+    private static final int MAGIC = 0x50455053;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 6 * Integer.BYTES + Long.BYTES;
+    private static final String FILE_PREFIX = "chunk_";
+    private static final String FILE_SEPARATOR = "_";
+    private static final String FILE_SUFFIX = ".bin";
+    private static final boolean MAP_FILES = !System.getProperty("os.name", "").startsWith("Windows");
+
+    // fields
+    private final Path directory;
+    private final int seed;
+    private final int fingerprint;
+
+    /**
+     * Constructs a ChunkStore. The directory is created on the first save.
+     *
+     * @param directory The directory of the chunk files.
+     * @param seed The world seed.
+     * @param fingerprint A hash of every other parameter the generated chunks depend on; files written
+     *                    with a different fingerprint are treated as stale.
+     */
+    public ChunkStore(Path directory, int seed, int fingerprint) {
+        this.directory = directory;
+        this.seed = seed;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Reads the record of a chunk.
+     *
+     * @param chunkIndex The chunk index.
+     * @return The stored record, or null if it is missing, corrupt or stale.
+     */
+    public ChunkRecord load(int chunkIndex) {
+        Path path = pathOf(chunkIndex);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = MAP_FILES ? map(path) : ByteBuffer.wrap(Files.readAllBytes(path));
+            int size = buffer.remaining();
+            if (size < HEADER_SIZE) {
+                return null;
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != seed
+                    || buffer.getInt() != fingerprint || buffer.getInt() != chunkIndex
+                    || buffer.getInt() != size - HEADER_SIZE) {
+                return null;
+            }
+            long checksum = buffer.getLong();
+            ByteBuffer payload = buffer.slice();
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != checksum) {
+                return null;
+            }
+            return new ChunkRecord(readFloats(payload), readFloats(payload), readInts(payload));
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the record of a chunk, replacing any previous file of the chunk.
+     * Failing to write only means the chunk will be generated again next time, so errors are ignored.
+     *
+     * @param chunkIndex The chunk index.
+     * @param record The record to write.
+     */
+    public void save(int chunkIndex, ChunkRecord record) {
+        ByteBuffer payload = ByteBuffer.allocate(3 * Integer.BYTES
+                + Float.BYTES * (record.getColumnHeights().length + record.getTreeLocations().length)
+                + Integer.BYTES * record.getBlockColors().length);
+        writeFloats(payload, record.getColumnHeights());
+        writeFloats(payload, record.getTreeLocations());
+        payload.putInt(record.getBlockColors().length);
+        for (int color : record.getBlockColors()) {
+            payload.putInt(color);
+        }
+        payload.flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(seed).putInt(fingerprint).putInt(chunkIndex)
+                .putInt(payload.remaining()).putLong(crc.getValue());
+        header.flip();
+
+        try {
+            AtomicFiles.write(pathOf(chunkIndex), header, payload);
+        } catch (IOException e) {
+            // the chunk is generated again next time
+        }
+    }
+
+    /**
+     * Returns the path of the file of a chunk.
+     */
+    private Path pathOf(int chunkIndex) {
+        return directory.resolve(FILE_PREFIX + seed + FILE_SEPARATOR + chunkIndex + FILE_SUFFIX);
+    }
+
+    /**
+     * Maps a whole file read-only. The mapping is released once the returned buffer is collected.
+     */
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Reads a length-prefixed array of floats.
+     */
+    private static float[] readFloats(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining() / Float.BYTES) {
+            throw new IllegalArgumentException("Invalid array length " + length);
+        }
+        float[] values = new float[length];
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + length * Float.BYTES);
+        return values;
+    }
+
+    /**
+     * Reads a length-prefixed array of ints.
+     */
+    private static int[] readInts(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining() / Integer.BYTES) {
+            throw new IllegalArgumentException("Invalid array length " + length);
+        }
+        int[] values = new int[length];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+        return values;
+    }
+
+    /**
+     * Writes a length-prefixed array of floats.
+     */
+    private static void writeFloats(ByteBuffer buffer, float[] values) {
+        buffer.putInt(values.length);
+        for (float value : values) {
+            buffer.putFloat(value);
+        }
+    }
+}
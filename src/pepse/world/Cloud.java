@@ -1,123 +1,166 @@
 package pepse.world;
 
 import danogl.GameObject;
-import danogl.collisions.Layer;
-import danogl.components.CoordinateSpace;
-import danogl.components.Transition;
-import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.ImageRenderable;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 import pepse.util.ColorSupplier;
 
 import java.awt.*;
-import java.util.ArrayList;
+import java.awt.image.BufferedImage;
 import java.util.Random;
-import java.util.function.BiConsumer;
-import java.util.function.Consumer;
 
 /**
- * The Cloud class is responsible for generating and managing cloud objects in the game world.
- * Clouds consist of blocks that move horizontally in a loop and interact with environmental changes.
- * Implements AvatarObserver to respond to updates from the Avatar.
+ * The Cloud class represents a single cloud as one game object in world coordinates.
+ * A cloud is a grid of blocks baked into a single image, taken from a small set of pattern variants,
+ * so it costs one renderable and one motion update regardless of its number of blocks.
+ * The horizontal drift is set once as the cloud velocity.
+ * Clouds are meant to be reused: {@link #reset(Vector2, Pattern, Vector2)} moves a cloud to a new
+ * position with a new pattern.
  *
  * @author fanteo12
  */
-public class Cloud implements Observer{
+public class Cloud extends GameObject {
 
     // constants
     private static final Color BASE_CLOUD_COLOR = new Color(255, 255, 255);
     private static final int HEIGHT = 3;
     private static final int WIDTH = 10;
-    private static final float START_WIDTH = -330;
-    private static final float START_HEIGHT = 200;
-    private static final Vector2 CLOUD_BLOCK_SIZE = new Vector2(30,30);
-    private static final float TRANSITION_TIME = 20;
     private static final int CLOUD_BLOCK_RAND = 100;
     private static final int CLOUD_BLOCK_PERCENT = 70;
+    private static final Vector2 CLOUD_SIZE = new Vector2(WIDTH * Block.getBlockSize(),
+            HEIGHT * Block.getBlockSize());
 
     // fields
-    private final Vector2 windowDimensions;
-    private final BiConsumer<GameObject, Integer> addGameObject;
-    private final Consumer<GameObject> removeGameObject;
-    private final Renderable cloudImage;
-    private final ArrayList<ArrayList<Block>> blocksArray;
+    private Pattern pattern;
 
     /**
-     * Constructs a Cloud instance, initializing its blocks and appearance.
-     *
-     * @param windowDimensions The dimensions of the game window.
-     * @param addGameObject Function to add game objects to the game.
-     * @param removeGameObject Function to remove game objects from the game.
+     * The Pattern class holds the baked image of a cloud variant, together with the centers of its
+     * blocks relative to the top left corner of the cloud.
      */
-    public Cloud(Vector2 windowDimensions, BiConsumer<GameObject,Integer> addGameObject,
-                 Consumer<GameObject> removeGameObject){
-        this.windowDimensions = windowDimensions;
-        this.addGameObject = addGameObject;
-        this.removeGameObject = removeGameObject;
-        cloudImage = new RectangleRenderable(ColorSupplier.approximateMonoColor(BASE_CLOUD_COLOR));
-        blocksArray = new ArrayList<>();
-
-        createCloudBlockArray();
-    }
+    public static class Pattern {
 
-    /**
-     * Creates a grid of blocks to represent the cloud structure.
-     */
-    private void createCloudBlockArray() {
-        Random rand = new Random();
-        for (int r = 0;  r < HEIGHT; r++){
-            blocksArray.add(new ArrayList<>());
-            for (int c = 0; c < WIDTH; c++){
-                int block = rand.nextInt(CLOUD_BLOCK_RAND);
-                if (block <= CLOUD_BLOCK_PERCENT){
-                    createCloudBlock(r,c);
-                }
-            }
+        // fields
+        private final Renderable renderable;
+        private final float[] blockXs;
+        private final float[] blockYs;
+
+        private Pattern(Renderable renderable, float[] blockXs, float[] blockYs) {
+            this.renderable = renderable;
+            this.blockXs = blockXs;
+            this.blockYs = blockYs;
+        }
+
+        /**
+         * Returns the number of blocks in the pattern.
+         *
+         * @return The block count.
+         */
+        public int blockCount() {
+            return blockXs.length;
+        }
+
+        /**
+         * Returns the x-offset of the center of a block from the left edge of the cloud.
+         *
+         * @param block The block index.
+         * @return The x-offset of the block center.
+         */
+        public float blockX(int block) {
+            return blockXs[block];
+        }
+
+        /**
+         * Returns the y-offset of the center of a block from the top edge of the cloud.
+         *
+         * @param block The block index.
+         * @return The y-offset of the block center.
+         */
+        public float blockY(int block) {
+            return blockYs[block];
         }
     }
 
     /**
-     * Creates a single cloud block at a specific grid position.
+     * Constructs a cloud with the given pattern.
+     *
+     * @param topLeftCorner The position of the cloud, in world coordinates.
+     * @param pattern The pattern of the cloud.
+     * @param velocity The drift velocity of the cloud.
      */
-    private void createCloudBlock(int r, int c) {
-        Block block = new Block(new Vector2(START_WIDTH + c,START_HEIGHT + r),
-                CLOUD_BLOCK_SIZE,cloudImage);
-        block.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
-        blocksArray.get(r).add(block);
-        addGameObject.accept(block, Layer.BACKGROUND);
-        createBlockTransition(r,c,block);
+    public Cloud(Vector2 topLeftCorner, Pattern pattern, Vector2 velocity) {
+        super(topLeftCorner, CLOUD_SIZE, pattern.renderable);
+        this.pattern = pattern;
+        setVelocity(velocity);
     }
 
     /**
-     * Sets a horizontal looping transition for a cloud block.
+     * Returns the width of a cloud in pixels.
+     *
+     * @return The cloud width.
      */
-    private void createBlockTransition(int r, int c, Block block) {
-        new Transition<>(block,
-                (Vector2 topLeftCorner)->block.setTopLeftCorner(
-                        new Vector2(topLeftCorner.x() + Block.getBlockSize(),topLeftCorner.y())),
-                new Vector2(START_WIDTH + c * Block.getBlockSize(),
-                        START_HEIGHT + r * Block.getBlockSize()),
-                new Vector2(windowDimensions.x() + c * Block.getBlockSize(),
-                        START_HEIGHT + r * Block.getBlockSize()),
-                Transition.LINEAR_INTERPOLATOR_VECTOR,
-                TRANSITION_TIME,
-                Transition.TransitionType.TRANSITION_LOOP,
-                null);
+    public static float getCloudWidth() {
+        return CLOUD_SIZE.x();
     }
 
     /**
-     * Responds to updates triggered by the Avatar.
-     * drops Droplets from the cloud blocks.
+     * Bakes a cloud pattern, where each block of the grid is present with a fixed probability.
+     *
+     * @param random The generator deciding which blocks are present.
+     * @return The new pattern.
      */
-    @Override
-    public void update() {
-        Random rand = new Random();
-        for (ArrayList<Block> blocks : blocksArray) {
-            for (Block block : blocks) {
-                if (rand.nextBoolean()){
-                    Drop.create(block.getCenter(),addGameObject,removeGameObject);
+    public static Pattern createPattern(Random random) {
+        boolean[] present = new boolean[HEIGHT * WIDTH];
+        int count = 0;
+        for (int i = 0; i < present.length; i++) {
+            present[i] = random.nextInt(CLOUD_BLOCK_RAND) <= CLOUD_BLOCK_PERCENT;
+            if (present[i]) {
+                count++;
+            }
+        }
+
+        int blockSize = Block.getBlockSize();
+        BufferedImage image = new BufferedImage((int) CLOUD_SIZE.x(), (int) CLOUD_SIZE.y(),
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(ColorSupplier.approximateMonoColor(BASE_CLOUD_COLOR));
+        float[] blockXs = new float[count];
+        float[] blockYs = new float[count];
+        int block = 0;
+        for (int r = 0; r < HEIGHT; r++) {
+            for (int c = 0; c < WIDTH; c++) {
+                if (present[r * WIDTH + c]) {
+                    graphics.fillRect(c * blockSize, r * blockSize, blockSize, blockSize);
+                    blockXs[block] = (c + 0.5f) * blockSize;
+                    blockYs[block] = (r + 0.5f) * blockSize;
+                    block++;
                 }
             }
         }
+        graphics.dispose();
+        return new Pattern(new ImageRenderable(image), blockXs, blockYs);
+    }
+
+    /**
+     * Returns the pattern of the cloud.
+     *
+     * @return The cloud pattern.
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Moves the cloud to a new position, with a new pattern and drift velocity.
+     *
+     * @param topLeftCorner The new position of the cloud, in world coordinates.
+     * @param pattern The new pattern of the cloud.
+     * @param velocity The new drift velocity of the cloud.
+     */
+    public void reset(Vector2 topLeftCorner, Pattern pattern, Vector2 velocity) {
+        this.pattern = pattern;
+        setTopLeftCorner(topLeftCorner);
+        renderer().setRenderable(pattern.renderable);
+        setVelocity(velocity);
     }
 }
@@ -0,0 +1,209 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.collisions.Layer;
+import danogl.util.Vector2;
+import pepse.events.RainSpawnEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * The CloudField class streams clouds into the sky as world chunks are loaded and unloaded.
+ * The clouds of a chunk are generated in world coordinates from the seed, so a chunk always gets the
+ * same clouds, and are taken from a pool of reusable {@link Cloud} objects that share a few baked
+ * pattern variants. Each cloud is listed under the chunk it is currently over, so it leaves the game
+ * with that chunk; a cloud that drifts past the right edge of the loaded chunks comes back at their
+ * left edge. Implements Observer to make the visible clouds rain when the avatar jumps.
+ *
+ * @author fanteo12
+ */
+public class CloudField implements Observer, ChunkListener {
+
+    // constants
+    private static final int CLOUD_SALT = 0x0C10D;
+    private static final int PATTERN_VARIANTS = 6;
+    private static final int MAX_CLOUDS_PER_CHUNK = 2;
+    private static final float MIN_CLOUD_Y = 120;
+    private static final float MAX_CLOUD_Y = 260;
+    private static final float MIN_DRIFT = 20;
+    private static final float MAX_DRIFT = 60;
+
+    // fields
+    private final Vector2 windowDimensions;
+    private final BiConsumer<GameObject, Integer> addGameObject;
+    private final BiConsumer<GameObject, Integer> removeGameObject;
+    private final Supplier<Vector2> cameraTopLeft;
+    private final int seed;
+    private final Cloud.Pattern[] patterns;
+    private final HashMap<Integer, ArrayList<Cloud>> cloudsByChunk;
+    private final ArrayDeque<Cloud> freeClouds;
+    private final ArrayList<Cloud> driftedClouds;
+    private final RainField rainField;
+    private final Random random;
+
+    /**
+     * Constructs a CloudField with no clouds, and adds its rain to the game.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param addGameObject Function to add game objects to the game at a specific layer.
+     * @param removeGameObject Function to remove game objects from a specific layer of the game.
+     * @param cameraTopLeft Function returning the top left corner of the camera view in world coordinates.
+     * @param seed A seed for generating consistent randomness.
+     * @param maxLiveDrops The maximal number of rain drops in the game at the same time.
+     */
+    public CloudField(Vector2 windowDimensions, BiConsumer<GameObject, Integer> addGameObject,
+                      BiConsumer<GameObject, Integer> removeGameObject, Supplier<Vector2> cameraTopLeft,
+                      int seed, int maxLiveDrops) {
+        this.windowDimensions = windowDimensions;
+        this.addGameObject = addGameObject;
+        this.removeGameObject = removeGameObject;
+        this.cameraTopLeft = cameraTopLeft;
+        this.seed = seed;
+        this.cloudsByChunk = new HashMap<>();
+        this.freeClouds = new ArrayDeque<>();
+        this.driftedClouds = new ArrayList<>();
+        this.rainField = new RainField(windowDimensions, maxLiveDrops, cameraTopLeft);
+        this.random = new Random();
+
+        Random patternRandom = new Random(Objects.hash(seed, CLOUD_SALT));
+        this.patterns = new Cloud.Pattern[PATTERN_VARIANTS];
+        for (int i = 0; i < PATTERN_VARIANTS; i++) {
+            patterns[i] = Cloud.createPattern(patternRandom);
+        }
+        addGameObject.accept(rainField, Layer.BACKGROUND);
+    }
+
+    /**
+     * Adds the clouds of a loaded chunk to the game.
+     *
+     * @param chunk The chunk that was loaded.
+     */
+    @Override
+    public void onChunkLoaded(Chunk chunk) {
+        Random chunkRandom = new Random(Objects.hash(chunk.getIndex(), seed, CLOUD_SALT));
+        int count = chunkRandom.nextInt(MAX_CLOUDS_PER_CHUNK + 1);
+        ArrayList<Cloud> clouds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Vector2 topLeftCorner = new Vector2(
+                    ChunkManager.chunkMinX(chunk.getIndex()) + chunkRandom.nextFloat() * ChunkManager.getChunkSize(),
+                    MIN_CLOUD_Y + chunkRandom.nextFloat() * (MAX_CLOUD_Y - MIN_CLOUD_Y));
+            Cloud.Pattern pattern = patterns[chunkRandom.nextInt(PATTERN_VARIANTS)];
+            Vector2 velocity = new Vector2(MIN_DRIFT + chunkRandom.nextFloat() * (MAX_DRIFT - MIN_DRIFT), 0);
+            Cloud cloud = freeClouds.poll();
+            if (cloud == null) {
+                cloud = new Cloud(topLeftCorner, pattern, velocity);
+            } else {
+                cloud.reset(topLeftCorner, pattern, velocity);
+            }
+            addGameObject.accept(cloud, Layer.BACKGROUND);
+            clouds.add(cloud);
+        }
+        cloudsByChunk.put(chunk.getIndex(), clouds);
+    }
+
+    /**
+     * Removes the clouds of an unloaded chunk from the game, and keeps them for reuse.
+     *
+     * @param chunk The chunk that was unloaded.
+     */
+    @Override
+    public void onChunkUnloaded(Chunk chunk) {
+        ArrayList<Cloud> clouds = cloudsByChunk.remove(chunk.getIndex());
+        if (clouds == null) {
+            return;
+        }
+        for (Cloud cloud : clouds) {
+            removeGameObject.accept(cloud, Layer.BACKGROUND);
+            freeClouds.push(cloud);
+        }
+    }
+
+    /**
+     * Lists every cloud that drifted over another chunk under that chunk, and moves the clouds that
+     * drifted past the right edge of the loaded chunks back to the left edge of the leftmost one.
+     * Called once per frame.
+     */
+    public void recycleClouds() {
+        for (Map.Entry<Integer, ArrayList<Cloud>> entry : cloudsByChunk.entrySet()) {
+            ArrayList<Cloud> clouds = entry.getValue();
+            for (int i = clouds.size() - 1; i >= 0; i--) {
+                Cloud cloud = clouds.get(i);
+                if (ChunkManager.chunkIndexAt(cloud.getTopLeftCorner().x()) != entry.getKey()) {
+                    clouds.set(i, clouds.get(clouds.size() - 1));
+                    clouds.remove(clouds.size() - 1);
+                    driftedClouds.add(cloud);
+                }
+            }
+        }
+        for (Cloud cloud : driftedClouds) {
+            Vector2 topLeftCorner = cloud.getTopLeftCorner();
+            ArrayList<Cloud> clouds = cloudsByChunk.get(ChunkManager.chunkIndexAt(topLeftCorner.x()));
+            if (clouds == null) {
+                // the loaded chunks are contiguous, so the cloud left them through the right edge
+                int minIndex = minLoadedIndex();
+                cloud.reset(new Vector2(ChunkManager.chunkMinX(minIndex), topLeftCorner.y()),
+                        cloud.getPattern(), cloud.getVelocity());
+                clouds = cloudsByChunk.get(minIndex);
+            }
+            clouds.add(cloud);
+        }
+        driftedClouds.clear();
+    }
+
+    /**
+     * Returns the index of the leftmost chunk that has a cloud list.
+     */
+    private int minLoadedIndex() {
+        int minIndex = Integer.MAX_VALUE;
+        for (int index : cloudsByChunk.keySet()) {
+            minIndex = Math.min(minIndex, index);
+        }
+        return minIndex;
+    }
+
+    /**
+     * Responds to updates triggered by the Avatar.
+     * drops Droplets from the blocks of the visible clouds, up to the maximal number of live drops.
+     */
+    @Override
+    public void update() {
+        Vector2 camera = cameraTopLeft.get();
+        RainSpawnEvent event = new RainSpawnEvent();
+        event.start(ChunkManager.chunkIndexAt(camera.x() + windowDimensions.x() / 2));
+        int liveDrops = rainField.getDropCount();
+        rain(camera);
+        event.finish(rainField.getDropCount() - liveDrops, rainField.getDropCount());
+    }
+
+    /**
+     * Drops rain from the blocks of the clouds in view, until every block was visited or the rain field
+     * is full.
+     */
+    private void rain(Vector2 camera) {
+        float minX = camera.x() - Cloud.getCloudWidth();
+        float maxX = camera.x() + windowDimensions.x();
+        for (ArrayList<Cloud> clouds : cloudsByChunk.values()) {
+            for (Cloud cloud : clouds) {
+                Vector2 topLeftCorner = cloud.getTopLeftCorner();
+                if (topLeftCorner.x() < minX || topLeftCorner.x() > maxX) {
+                    continue;
+                }
+                Cloud.Pattern pattern = cloud.getPattern();
+                float x = topLeftCorner.x();
+                float y = topLeftCorner.y();
+                for (int i = 0; i < pattern.blockCount(); i++) {
+                    if (random.nextBoolean() && !rainField.spawn(x + pattern.blockX(i), y + pattern.blockY(i))) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.gui.UserInputListener;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.util.FrameProfiler;
+import pepse.util.RollingHistogram;
+
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * The DebugPanel class represents a UI element that displays frame timings and object counts.
+ * It shows the p50, p99 and maximal duration of every section timed by a {@link FrameProfiler}, and
+ * the number of game objects in each given layer. The panel is hidden until its toggle key is pressed,
+ * and another key dumps the profiled frames to a CSV file. The text is refreshed twice a second, and
+ * only while the panel is shown, so a hidden panel costs two key checks per frame.
+ *
+ * @author fanteo12
+ */
+public class DebugPanel extends GameObject {
+
+    // constants
+    private static final int TOGGLE_KEY = KeyEvent.VK_F3;
+    private static final int DUMP_KEY = KeyEvent.VK_F4;
+    private static final float REFRESH_TIME = 0.5f;
+    private static final double MEDIAN = 0.5;
+    private static final double HIGH_PERCENTILE = 0.99;
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final int LINE_HEIGHT = 14;
+    private static final int PADDING = 4;
+    private static final Color TEXT_COLOR = Color.WHITE;
+    private static final Color BACKGROUND_COLOR = new Color(0, 0, 0, 160);
+    private static final String HEADER = String.format(Locale.ROOT, "%-13s %7s %7s %7s", "ms", "p50", "p99", "max");
+    private static final String TIMING_FORMAT = "%-13s %7.2f %7.2f %7.2f";
+    private static final String COUNT_FORMAT = "%-13s %7d";
+    private static final String CSV_PREFIX = "frames_";
+    private static final String CSV_SUFFIX = ".csv";
+
+    // fields
+    private final UserInputListener inputListener;
+    private final FrameProfiler profiler;
+    private final Map<String, Integer> layers;
+    private final IntFunction<Iterable<GameObject>> objectsInLayer;
+    private final Path dumpDirectory;
+    private final ArrayList<String> lines;
+    private final Renderable linesRenderable;
+    private boolean shown;
+    private boolean togglePressed;
+    private boolean dumpPressed;
+    private float timeSinceRefresh;
+    private String status;
+
+    /**
+     * Draws the lines of the panel over a translucent background.
+     */
+    private class LinesRenderable implements Renderable {
+
+        @Override
+        public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                           double degreesCounterClockwise, boolean isFlippedHorizontally,
+                           boolean isFlippedVertically, double opaqueness) {
+            int x = Math.round(topLeftCorner.x());
+            int y = Math.round(topLeftCorner.y());
+            g.setColor(BACKGROUND_COLOR);
+            g.fillRect(x, y, Math.round(dimensions.x()), lines.size() * LINE_HEIGHT + 2 * PADDING);
+            g.setColor(TEXT_COLOR);
+            g.setFont(FONT);
+            for (int i = 0; i < lines.size(); i++) {
+                g.drawString(lines.get(i), x + PADDING, y + PADDING + (i + 1) * LINE_HEIGHT);
+            }
+        }
+    }
+
+    /**
+     * Constructs a hidden DebugPanel.
+     *
+     * @param topLeftCorner Position of the panel, in window coordinates (pixels).
+     * @param dimensions The size of the panel; its height grows with the number of lines.
+     * @param inputListener Listener for the toggle and dump keys.
+     * @param profiler The profiler whose sections are shown.
+     * @param layers The layers whose objects are counted, by the name they are shown with.
+     * @param objectsInLayer Function that returns the game objects of a layer.
+     * @param dumpDirectory The directory CSV dumps are written to.
+     */
+    public DebugPanel(Vector2 topLeftCorner, Vector2 dimensions, UserInputListener inputListener,
+                      FrameProfiler profiler, Map<String, Integer> layers,
+                      IntFunction<Iterable<GameObject>> objectsInLayer, Path dumpDirectory) {
+        super(topLeftCorner, dimensions, null);
+        this.inputListener = inputListener;
+        this.profiler = profiler;
+        this.layers = layers;
+        this.objectsInLayer = objectsInLayer;
+        this.dumpDirectory = dumpDirectory;
+        this.lines = new ArrayList<>();
+        this.linesRenderable = new LinesRenderable();
+    }
+
+    /**
+     * Shows or hides the panel and dumps the profiled frames when their keys are pressed, and refreshes
+     * the text of a shown panel.
+     *
+     * @param deltaTime Time elapsed since the last update.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        boolean toggle = inputListener.isKeyPressed(TOGGLE_KEY);
+        if (toggle && !togglePressed) {
+            shown = !shown;
+            renderer().setRenderable(shown ? linesRenderable : null);
+            timeSinceRefresh = REFRESH_TIME;
+        }
+        togglePressed = toggle;
+
+        boolean dump = inputListener.isKeyPressed(DUMP_KEY);
+        if (dump && !dumpPressed) {
+            dumpFrames();
+        }
+        dumpPressed = dump;
+
+        if (!shown) {
+            return;
+        }
+        timeSinceRefresh += deltaTime;
+        if (timeSinceRefresh >= REFRESH_TIME) {
+            timeSinceRefresh = 0;
+            refresh();
+        }
+    }
+
+    /**
+     * Rebuilds the lines of the panel from the profiler and the current layers.
+     */
+    private void refresh() {
+        lines.clear();
+        lines.add(HEADER);
+        for (int section = 0; section < profiler.getSectionCount(); section++) {
+            RollingHistogram histogram = profiler.getHistogram(section);
+            lines.add(String.format(Locale.ROOT, TIMING_FORMAT, profiler.getSectionName(section),
+                    FrameProfiler.toMillis(histogram.percentile(MEDIAN)),
+                    FrameProfiler.toMillis(histogram.percentile(HIGH_PERCENTILE)),
+                    FrameProfiler.toMillis(histogram.getMax())));
+        }
+        for (Map.Entry<String, Integer> layer : layers.entrySet()) {
+            int count = 0;
+            for (GameObject ignored : objectsInLayer.apply(layer.getValue())) {
+                count++;
+            }
+            lines.add(String.format(Locale.ROOT, COUNT_FORMAT, layer.getKey(), count));
+        }
+        if (status != null) {
+            lines.add(status);
+        }
+    }
+
+    /**
+     * Writes the profiled frames to a new CSV file, and reports the outcome on the panel.
+     */
+    private void dumpFrames() {
+        Path path = dumpDirectory.resolve(CSV_PREFIX + profiler.getFrameCount() + CSV_SUFFIX);
+        try {
+            profiler.writeCsv(path);
+            status = "wrote " + path;
+        } catch (IOException e) {
+            status = "dump failed: " + e.getMessage();
+        }
+        timeSinceRefresh = REFRESH_TIME;
+    }
+}
@@ -0,0 +1,126 @@
+package pepse.world;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * The Heightmap class caches the ground height of block-aligned columns in a primitive ring buffer.
+ * Columns are computed in pages of adjacent columns with a single bulk call, the first time one of
+ * them is requested, and stay cached until a column that maps to the same slot is requested.
+ * With a capacity larger than the loaded range, every column in the loaded range and a margin
+ * around it is looked up in O(1). All accesses are synchronized, since chunks are generated on
+ * worker threads while the game thread reads heights.
+ *
+ * @author fanteo12
+ */
+public class Heightmap {
+
+    // constants
+    private static final int EMPTY_SLOT = Integer.MIN_VALUE;
+    private static final int PAGE_SIZE = 16;
+
+    // fields
+    private final BiConsumer<double[], float[]> computeHeights;
+    private final double[] pageXs;
+    private final float[] pageHeights;
+    private final boolean interpolate;
+    private final float[] heights;
+    private final int[] columns;
+    private final int mask;
+
+    /**
+     * Constructs an empty Heightmap.
+     *
+     * @param computeHeights Function that fills its second argument with the ground heights at the
+     *                       x-coordinates given in its first argument.
+     * @param capacity The number of cached columns. Rounded up to a power of two, and at least one page.
+     * @param interpolate If true, heights between two columns are linearly interpolated,
+     *                    otherwise the height of the column containing the x-coordinate is returned.
+     */
+    public Heightmap(BiConsumer<double[], float[]> computeHeights, int capacity, boolean interpolate) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, PAGE_SIZE - 1)) << 1;
+        this.computeHeights = computeHeights;
+        this.pageXs = new double[PAGE_SIZE];
+        this.pageHeights = new float[PAGE_SIZE];
+        this.interpolate = interpolate;
+        this.heights = new float[size];
+        this.columns = new int[size];
+        this.mask = size - 1;
+        Arrays.fill(columns, EMPTY_SLOT);
+    }
+
+    /**
+     * Returns the ground height at the given x-coordinate.
+     *
+     * @param x The x-coordinate.
+     * @return The cached (and optionally interpolated) ground height at x.
+     */
+    public float heightAt(float x) {
+        float position = x / Block.getBlockSize();
+        int column = (int) Math.floor(position);
+        float height = heightAtColumn(column);
+        float fraction = position - column;
+        if (!interpolate || fraction == 0) {
+            return height;
+        }
+        return height + fraction * (heightAtColumn(column + 1) - height);
+    }
+
+    /**
+     * Returns the ground height at the left edge of the given column.
+     *
+     * @param column The column index, which is the x-coordinate divided by the block size.
+     * @return The cached ground height of the column.
+     */
+    public synchronized float heightAtColumn(int column) {
+        int slot = column & mask;
+        if (columns[slot] != column) {
+            computePage(column);
+        }
+        return heights[slot];
+    }
+
+    /**
+     * Makes sure all the columns in the given range are cached, computing the missing pages in bulk.
+     *
+     * @param minColumn The first column of the range.
+     * @param maxColumn The last column of the range, inclusive.
+     */
+    public synchronized void prefetch(int minColumn, int maxColumn) {
+        for (int column = minColumn; column <= maxColumn; column++) {
+            if (columns[column & mask] != column) {
+                computePage(column);
+            }
+        }
+    }
+
+    /**
+     * Caches known heights of adjacent columns, without computing them.
+     *
+     * @param firstColumn The column of the first height.
+     * @param columnHeights The heights of the columns, from left to right.
+     */
+    public synchronized void fill(int firstColumn, float[] columnHeights) {
+        for (int i = 0; i < columnHeights.length; i++) {
+            int slot = (firstColumn + i) & mask;
+            heights[slot] = columnHeights[i];
+            columns[slot] = firstColumn + i;
+        }
+    }
+
+    /**
+     * Computes the heights of all the columns in the page containing the given column.
+     */
+    private void computePage(int column) {
+        int firstColumn = column & -PAGE_SIZE;
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            pageXs[i] = (double) (firstColumn + i) * Block.getBlockSize();
+        }
+        computeHeights.accept(pageXs, pageHeights);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            int slot = (firstColumn + i) & mask;
+            heights[slot] = pageHeights[i];
+            columns[slot] = firstColumn + i;
+        }
+    }
+}
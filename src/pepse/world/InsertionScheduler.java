@@ -0,0 +1,118 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.collisions.Layer;
+
+import java.util.ArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * The InsertionScheduler class streams the objects of newly loaded chunks into the game across
+ * several frames, instead of adding a whole chunk in a single frame.
+ * Every frame it adds objects until either a maximal number of objects or a time budget is used up.
+ * The pending chunk nearest to the avatar is served first, and within a chunk the colliders nearest
+ * to the avatar are added first.
+ *
+ * @author fanteo12
+ */
+public class InsertionScheduler {
+
+    // constants
+    private static final long NANOS_PER_MICRO = 1000;
+    private static final int OBJECTS_PER_TIME_CHECK = 16;
+
+    // fields
+    private final BiConsumer<GameObject, Integer> addGameObject;
+    private final int maxObjectsPerFrame;
+    private final long budgetNanos;
+    private final ArrayList<Chunk> pendingChunks;
+
+    /**
+     * Constructs an InsertionScheduler with no pending chunks.
+     *
+     * @param addGameObject Function to add game objects to the game at a specific layer.
+     * @param maxObjectsPerFrame The maximal number of objects added in a single frame.
+     * @param budgetMicros The maximal time spent adding objects in a single frame, in microseconds.
+     */
+    public InsertionScheduler(BiConsumer<GameObject, Integer> addGameObject, int maxObjectsPerFrame,
+                              long budgetMicros) {
+        this.addGameObject = addGameObject;
+        this.maxObjectsPerFrame = maxObjectsPerFrame;
+        this.budgetNanos = budgetMicros * NANOS_PER_MICRO;
+        this.pendingChunks = new ArrayList<>();
+    }
+
+    /**
+     * Schedules the objects of a chunk to be added to the game.
+     *
+     * @param chunk The chunk to add.
+     * @param avatarX The x-coordinate of the avatar, the colliders nearest to it are added first.
+     */
+    public void schedule(Chunk chunk, float avatarX) {
+        chunk.sortForInsertion(avatarX, InsertionScheduler::isColliderLayer);
+        pendingChunks.add(chunk);
+    }
+
+    /**
+     * Stops adding the objects of a chunk. Objects that were already added stay in the game.
+     *
+     * @param chunk The chunk to cancel.
+     */
+    public void cancel(Chunk chunk) {
+        pendingChunks.remove(chunk);
+    }
+
+    /**
+     * Adds the objects of all the pending chunks at once, regardless of the budget.
+     */
+    public void flush() {
+        for (Chunk chunk : pendingChunks) {
+            chunk.addTo(addGameObject);
+        }
+        pendingChunks.clear();
+    }
+
+    /**
+     * Adds pending objects to the game within the per-frame budget.
+     *
+     * @param avatarX The x-coordinate of the avatar.
+     */
+    public void update(float avatarX) {
+        long start = System.nanoTime();
+        int remaining = maxObjectsPerFrame;
+        while (remaining > 0 && !pendingChunks.isEmpty()) {
+            Chunk chunk = nearestChunk(avatarX);
+            remaining -= chunk.insertNext(addGameObject, Math.min(remaining, OBJECTS_PER_TIME_CHECK));
+            if (chunk.isFullyInserted()) {
+                pendingChunks.remove(chunk);
+            }
+            if (System.nanoTime() - start >= budgetNanos) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the pending chunk whose center is nearest to the given x-coordinate.
+     */
+    private Chunk nearestChunk(float x) {
+        Chunk nearest = pendingChunks.get(0);
+        float nearestDistance = Float.MAX_VALUE;
+        for (Chunk chunk : pendingChunks) {
+            float center = ChunkManager.chunkMinX(chunk.getIndex()) + ChunkManager.getChunkSize() / 2f;
+            float distance = Math.abs(center - x);
+            if (distance < nearestDistance) {
+                nearest = chunk;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns whether the objects of a layer take part in collisions with the avatar.
+     */
+    private static boolean isColliderLayer(int layer) {
+        return layer == Layer.STATIC_OBJECTS || layer == Layer.DEFAULT;
+    }
+}
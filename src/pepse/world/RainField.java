@@ -0,0 +1,176 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.util.ColorSupplier;
+
+import java.awt.*;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * The RainField class represents all the rain drops of the cloud field as a single game object.
+ * The position, velocity and age of every drop are kept in primitive arrays, and the whole field is
+ * drawn by one renderable, so the cost of a drop is a few array slots instead of a game object with
+ * its own transition and render call. Drops fall at a set velocity and fade away with a cubic curve;
+ * the faded-out drops are removed by moving the last drop into their slot.
+ * Drops live in world coordinates, like the clouds that spawn them, so they stay where they fell as
+ * the camera moves. The field object follows the camera window, and only the drops inside it are drawn.
+ *
+ * @author fanteo12
+ */
+public class RainField extends GameObject {
+
+    // constants
+    private static final Color DROP_COLOR = Color.BLUE;
+    private static final int DROP_COLOR_DELTA = 80;
+    private static final int DROP_SIZE = 10;
+    private static final float DROP_VELOCITY = 100;
+    private static final float FADE_TIME = 3;
+    private static final int COLOR_VARIANTS = 8;
+    private static final int OPACITY_LEVELS = 32;
+    private static final int MAX_ALPHA = 255;
+
+    // fields
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] velocities;
+    private final float[] ages;
+    private final byte[] variants;
+    private final Color[][] colors;
+    private final Random random;
+    private final Supplier<Vector2> cameraTopLeft;
+    private int count;
+
+    /**
+     * Constructs an empty rain field.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param capacity The maximal number of drops in the field at the same time.
+     * @param cameraTopLeft Function returning the top left corner of the camera view in world coordinates.
+     */
+    public RainField(Vector2 windowDimensions, int capacity, Supplier<Vector2> cameraTopLeft) {
+        super(Vector2.ZERO, windowDimensions, null);
+        this.xs = new float[capacity];
+        this.ys = new float[capacity];
+        this.velocities = new float[capacity];
+        this.ages = new float[capacity];
+        this.variants = new byte[capacity];
+        this.random = new Random();
+        this.colors = createColors();
+        this.cameraTopLeft = cameraTopLeft;
+        renderer().setRenderable(new DropsRenderable());
+    }
+
+    /**
+     * Precomputes every drop color variant at every opacity level, so rendering allocates nothing.
+     */
+    private Color[][] createColors() {
+        Color[][] table = new Color[COLOR_VARIANTS][OPACITY_LEVELS];
+        for (int v = 0; v < COLOR_VARIANTS; v++) {
+            Color color = ColorSupplier.approximateColor(DROP_COLOR, DROP_COLOR_DELTA, random);
+            for (int level = 0; level < OPACITY_LEVELS; level++) {
+                int alpha = Math.round((float) MAX_ALPHA * level / (OPACITY_LEVELS - 1));
+                table[v][level] = new Color(color.getRed(), color.getGreen(), color.getBlue(), alpha);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Adds a drop to the field.
+     *
+     * @param x The x-coordinate of the drop center, in world coordinates.
+     * @param y The y-coordinate of the drop center, in world coordinates.
+     * @return True if the drop was added, false if the field is full.
+     */
+    public boolean spawn(float x, float y) {
+        if (count == xs.length) {
+            return false;
+        }
+        xs[count] = x;
+        ys[count] = y;
+        velocities[count] = DROP_VELOCITY;
+        ages[count] = 0;
+        variants[count] = (byte) random.nextInt(COLOR_VARIANTS);
+        count++;
+        return true;
+    }
+
+    /**
+     * Returns the number of drops in the field.
+     *
+     * @return The drop count.
+     */
+    public int getDropCount() {
+        return count;
+    }
+
+    /**
+     * Moves and ages every drop, removes the drops that faded out, and moves the field onto the camera
+     * window.
+     *
+     * @param deltaTime Time elapsed since the last update.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        int i = 0;
+        while (i < count) {
+            ages[i] += deltaTime;
+            if (ages[i] >= FADE_TIME) {
+                removeAt(i);
+                continue;
+            }
+            ys[i] += velocities[i] * deltaTime;
+            i++;
+        }
+        setTopLeftCorner(cameraTopLeft.get());
+    }
+
+    /**
+     * Removes a drop by moving the last drop into its slot.
+     */
+    private void removeAt(int i) {
+        count--;
+        xs[i] = xs[count];
+        ys[i] = ys[count];
+        velocities[i] = velocities[count];
+        ages[i] = ages[count];
+        variants[i] = variants[count];
+    }
+
+    /**
+     * Draws all the drops inside the window with one render call.
+     */
+    private class DropsRenderable implements Renderable {
+
+        @Override
+        public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                           double degreesCounterClockwise, boolean isFlippedHorizontally,
+                           boolean isFlippedVertically, double opaqueness) {
+            // the field covers the window, so a drop is drawn at its offset from the field corner
+            Vector2 fieldTopLeft = getTopLeftCorner();
+            float offsetX = topLeftCorner.x() - fieldTopLeft.x() - DROP_SIZE / 2f;
+            float offsetY = topLeftCorner.y() - fieldTopLeft.y() - DROP_SIZE / 2f;
+            float minX = fieldTopLeft.x() - DROP_SIZE;
+            float maxX = fieldTopLeft.x() + dimensions.x();
+            float minY = fieldTopLeft.y() - DROP_SIZE;
+            float maxY = fieldTopLeft.y() + dimensions.y();
+            for (int i = 0; i < count; i++) {
+                if (xs[i] < minX || xs[i] > maxX || ys[i] < minY || ys[i] > maxY) {
+                    continue;
+                }
+                float progress = ages[i] / FADE_TIME;
+                double opacity = (1 - progress * progress * progress) * opaqueness;
+                int level = (int) Math.round(opacity * (OPACITY_LEVELS - 1));
+                if (level <= 0) {
+                    continue;
+                }
+                g.setColor(colors[variants[i]][level]);
+                g.fillOval(Math.round(offsetX + xs[i]), Math.round(offsetY + ys[i]), DROP_SIZE, DROP_SIZE);
+            }
+        }
+    }
+}
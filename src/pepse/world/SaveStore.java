@@ -0,0 +1,285 @@
+package pepse.world;
+
+import pepse.util.AtomicFiles;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+/**
+ * The SaveStore class persists the state of a game as the seed plus what the player changed.
+ * A small world file holds the seed, the game clock and the avatar state, and each chunk the player
+ * changed has its own {@link ChunkDelta} file, so saving writes only the changed chunks and loading
+ * reads a chunk's file only when the chunk is loaded. Every file is written with {@link AtomicFiles}
+ * and protected by a CRC32; a missing, corrupt or stale file reads as no change at all.
+ *
+ * @author fanteo12
+ */
+public class SaveStore {
+
+    // constants
+    private static final int WORLD_MAGIC = 0x50535657;
+    private static final int CHUNK_MAGIC = 0x50534344;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 3 * Integer.BYTES + Long.BYTES;
+    private static final String WORLD_FILE = "world.bin";
+    private static final String CHUNK_PREFIX = "delta_";
+    private static final String CHUNK_SEPARATOR = "_";
+    private static final String CHUNK_SUFFIX = ".bin";
+
+    // fields
+    private final Path directory;
+    private final int seed;
+
+    /**
+     * The WorldState class holds the content of a world file.
+     */
+    public static class WorldState {
+
+        // fields
+        private final int seed;
+        private final double clock;
+        private final float avatarX;
+        private final float avatarY;
+        private final float energy;
+
+        /**
+         * Constructs a world state.
+         *
+         * @param seed The world seed.
+         * @param clock The game clock, in seconds.
+         * @param avatarX The x-coordinate of the avatar's top left corner.
+         * @param avatarY The y-coordinate of the avatar's top left corner.
+         * @param energy The avatar's energy.
+         */
+        public WorldState(int seed, double clock, float avatarX, float avatarY, float energy) {
+            this.seed = seed;
+            this.clock = clock;
+            this.avatarX = avatarX;
+            this.avatarY = avatarY;
+            this.energy = energy;
+        }
+
+        /**
+         * Returns the world seed.
+         *
+         * @return The seed.
+         */
+        public int getSeed() {
+            return seed;
+        }
+
+        /**
+         * Returns the game clock.
+         *
+         * @return The clock, in seconds.
+         */
+        public double getClock() {
+            return clock;
+        }
+
+        /**
+         * Returns the x-coordinate of the avatar's top left corner.
+         *
+         * @return The avatar x-coordinate.
+         */
+        public float getAvatarX() {
+            return avatarX;
+        }
+
+        /**
+         * Returns the y-coordinate of the avatar's top left corner.
+         *
+         * @return The avatar y-coordinate.
+         */
+        public float getAvatarY() {
+            return avatarY;
+        }
+
+        /**
+         * Returns the avatar's energy.
+         *
+         * @return The energy.
+         */
+        public float getEnergy() {
+            return energy;
+        }
+    }
+
+    /**
+     * Constructs a SaveStore for the given seed. The directory is created on the first save.
+     *
+     * @param directory The directory of the save files.
+     * @param seed The world seed.
+     */
+    public SaveStore(Path directory, int seed) {
+        this.directory = directory;
+        this.seed = seed;
+    }
+
+    /**
+     * Reads the world file of a save directory.
+     *
+     * @param directory The directory of the save files.
+     * @return The saved world state, or null if there is no valid world file.
+     */
+    public static WorldState loadWorld(Path directory) {
+        ByteBuffer payload = read(directory.resolve(WORLD_FILE), WORLD_MAGIC);
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return new WorldState(payload.getInt(), payload.getDouble(), payload.getFloat(),
+                    payload.getFloat(), payload.getFloat());
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the world file.
+     *
+     * @param state The world state to save; its seed should be the seed of this store.
+     * @return True if the file was written.
+     */
+    public boolean saveWorld(WorldState state) {
+        ByteBuffer payload = ByteBuffer.allocate(Integer.BYTES + Double.BYTES + 3 * Float.BYTES);
+        payload.putInt(state.getSeed()).putDouble(state.getClock()).putFloat(state.getAvatarX())
+                .putFloat(state.getAvatarY()).putFloat(state.getEnergy());
+        return write(directory.resolve(WORLD_FILE), WORLD_MAGIC, payload);
+    }
+
+    /**
+     * Reads the delta of a chunk.
+     *
+     * @param chunkIndex The chunk index.
+     * @return The saved delta, or an empty delta if the chunk has no valid delta file.
+     */
+    public ChunkDelta loadChunk(int chunkIndex) {
+        ChunkDelta delta = new ChunkDelta();
+        ByteBuffer payload = read(chunkPath(chunkIndex), CHUNK_MAGIC);
+        if (payload == null) {
+            return delta;
+        }
+        try {
+            if (payload.getInt() != seed || payload.getInt() != chunkIndex) {
+                return delta;
+            }
+            int words = payload.getInt();
+            if (words < 0 || words > payload.remaining() / Long.BYTES) {
+                return delta;
+            }
+            long[] eaten = new long[words];
+            payload.asLongBuffer().get(eaten);
+            payload.position(payload.position() + words * Long.BYTES);
+            for (int word = 0; word < words; word++) {
+                for (long bits = eaten[word]; bits != 0; bits &= bits - 1) {
+                    delta.markEaten(word * Long.SIZE + Long.numberOfTrailingZeros(bits), payload.getDouble());
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            return new ChunkDelta();
+        }
+        delta.markSaved();
+        return delta;
+    }
+
+    /**
+     * Writes the delta of a chunk, or deletes its file if no fruit of the chunk is eaten.
+     * The delta is marked as saved if it was written.
+     *
+     * @param chunkIndex The chunk index.
+     * @param delta The delta to save.
+     * @return True if the file was written or deleted.
+     */
+    public boolean saveChunk(int chunkIndex, ChunkDelta delta) {
+        Path path = chunkPath(chunkIndex);
+        if (delta.getEatenCount() == 0) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                return false;
+            }
+            delta.markSaved();
+            return true;
+        }
+
+        int lastEaten = -1;
+        for (int fruit = delta.nextEaten(0); fruit != -1; fruit = delta.nextEaten(fruit + 1)) {
+            lastEaten = fruit;
+        }
+        int words = lastEaten / Long.SIZE + 1;
+        ByteBuffer payload = ByteBuffer.allocate(3 * Integer.BYTES + words * Long.BYTES
+                + delta.getEatenCount() * Double.BYTES);
+        payload.putInt(seed).putInt(chunkIndex).putInt(words);
+        long[] eaten = new long[words];
+        for (int fruit = delta.nextEaten(0); fruit != -1; fruit = delta.nextEaten(fruit + 1)) {
+            eaten[fruit / Long.SIZE] |= 1L << fruit;
+        }
+        for (long word : eaten) {
+            payload.putLong(word);
+        }
+        for (int fruit = delta.nextEaten(0); fruit != -1; fruit = delta.nextEaten(fruit + 1)) {
+            payload.putDouble(delta.getRegrowthTime(fruit));
+        }
+        if (!write(path, CHUNK_MAGIC, payload)) {
+            return false;
+        }
+        delta.markSaved();
+        return true;
+    }
+
+    /**
+     * Returns the path of the delta file of a chunk.
+     */
+    private Path chunkPath(int chunkIndex) {
+        return directory.resolve(CHUNK_PREFIX + seed + CHUNK_SEPARATOR + chunkIndex + CHUNK_SUFFIX);
+    }
+
+    /**
+     * Reads a file and returns its payload, or null if it is missing, of another kind or version,
+     * or its checksum does not match.
+     */
+    private static ByteBuffer read(Path path, int magic) {
+        byte[] bytes;
+        try {
+            if (!Files.isRegularFile(path)) {
+                return null;
+            }
+            bytes = Files.readAllBytes(path);
+        } catch (IOException e) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER_SIZE || buffer.getInt() != magic || buffer.getInt() != VERSION
+                || buffer.getInt() != bytes.length - HEADER_SIZE) {
+            return null;
+        }
+        long checksum = buffer.getLong();
+        ByteBuffer payload = buffer.slice();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        return crc.getValue() == checksum ? payload : null;
+    }
+
+    /**
+     * Writes a file made of a header and the written part of the payload.
+     */
+    private static boolean write(Path path, int magic, ByteBuffer payload) {
+        payload.flip();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(magic).putInt(VERSION).putInt(payload.remaining()).putLong(crc.getValue());
+        header.flip();
+        try {
+            AtomicFiles.write(path, header, payload);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
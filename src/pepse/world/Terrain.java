@@ -1,6 +1,6 @@
 package pepse.world;
 
-import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.ImageRenderable;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 import pepse.util.ColorSupplier;
@@ -8,12 +8,20 @@ import pepse.util.Constants;
 import pepse.util.NoiseGenerator;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Random;
 
 /**
  * The Terrain class generates and manages the ground in the game world.
  * It uses Perlin noise to create natural-looking variations in the ground height.
+ * In merged-column mode, every run of adjacent columns at equal height is generated as a single
+ * block spanning the whole terrain depth, instead of a separate block per cell.
+ * The ground of a whole chunk can also be baked into a single image with the same per-block color
+ * variation, drawn by one render-only game object; baked images are cached by seed and chunk index.
+ * The game bakes its chunks; the per-block and merged-column modes are what the benchmarks compare.
  *
  * @author fanteo12
  */
@@ -23,11 +31,19 @@ public class Terrain {
     private static final Color BASE_GROUND_COLOR = new Color(212, 123, 74);
     private static final int TERRAIN_DEPTH = 25;
     private static final int NOISE_FACTOR = 270;
+    private static final int HEIGHTMAP_COLUMNS = 256;
+    private static final boolean INTERPOLATE_HEIGHTS = true;
+    private static final int GROUND_COLOR_DELTA = 10;
+    private static final int MAX_CACHED_IMAGES = 12;
 
 
     // fields
     private static float groundHeightAtX0;
     private final NoiseGenerator noiseGenerator;
+    private final Heightmap heightmap;
+    private final boolean mergeColumns;
+    private final int seed;
+    private final ChunkImageCache imageCache;
 
     /**
      * Constructs a Terrain instance for generating ground blocks.
@@ -36,17 +52,61 @@ public class Terrain {
      * @param seed A seed value for generating consistent noise patterns.
      */
     public Terrain(Vector2 windowDimensions, int seed){
+        this(windowDimensions, seed, false);
+    }
+
+    /**
+     * Constructs a Terrain instance for generating ground blocks.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param seed A seed value for generating consistent noise patterns.
+     * @param mergeColumns If true, runs of adjacent columns at equal height are merged into a single block.
+     */
+    public Terrain(Vector2 windowDimensions, int seed, boolean mergeColumns){
         groundHeightAtX0 = windowDimensions.y() * Constants.GROUND_RATIO_NUMERATOR/Constants.GROUND_RATIO_DENOMINATOR;
         noiseGenerator = new NoiseGenerator(seed, (int)groundHeightAtX0);
+        heightmap = new Heightmap(this::noiseHeights, HEIGHTMAP_COLUMNS, INTERPOLATE_HEIGHTS);
+        this.mergeColumns = mergeColumns;
+        this.seed = seed;
+        this.imageCache = new ChunkImageCache(MAX_CACHED_IMAGES);
     }
 
     /**
-     * Calculates the ground height at a specific x-coordinate.
+     * Returns the ground height at a specific x-coordinate, read from the cached heightmap.
+     * Heights between two block-aligned columns are interpolated.
      *
      * @param x The x-coordinate to calculate the ground height for.
      * @return The height of the ground at the specified x-coordinate.
      */
-    public float groundHeightAt(float x) { return (float)(groundHeightAtX0 + noiseGenerator.noise(x, NOISE_FACTOR)); }
+    public float groundHeightAt(float x) { return heightmap.heightAt(x); }
+
+    /**
+     * Returns the top of the highest block column overlapping a horizontal span, which is the surface
+     * an object spanning it rests on. Reads only the cached column heights, and creates no blocks.
+     *
+     * @param minX The minimal x-coordinate of the span.
+     * @param maxX The maximal x-coordinate of the span, exclusive.
+     * @return The smallest y-coordinate of a ground surface in the span.
+     */
+    public float groundSurfaceIn(float minX, float maxX) {
+        int firstColumn = (int) Math.floor(minX / Block.getBlockSize());
+        int lastColumn = Math.max(firstColumn, (int) Math.ceil(maxX / Block.getBlockSize()) - 1);
+        int surface = Integer.MAX_VALUE;
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            surface = Math.min(surface, columnHeight(column * Block.getBlockSize()));
+        }
+        return surface;
+    }
+
+    /**
+     * Computes the ground heights at the given x-coordinates with a single bulk noise call.
+     */
+    private void noiseHeights(double[] xs, float[] heights) {
+        noiseGenerator.noise(xs, NOISE_FACTOR, heights);
+        for (int i = 0; i < xs.length; i++) {
+            heights[i] += groundHeightAtX0;
+        }
+    }
 
     /**
      * Generates ground blocks within a specified horizontal range.
@@ -62,13 +122,19 @@ public class Terrain {
         // Align range boundaries to block size
         int newMaxX = (int)Math.floor((float)maxX / Block.getBlockSize()) * Block.getBlockSize();
         int newMinX = (int)Math.floor((float)minX / Block.getBlockSize()) * Block.getBlockSize();
+        heightmap.prefetch(newMinX / Block.getBlockSize(), newMaxX / Block.getBlockSize());
+
+        if (mergeColumns) {
+            createMergedColumns(newMinX, newMaxX, blockList);
+            return blockList;
+        }
 
         // Generate blocks for the specified range
         for (int i = newMinX; i <= newMaxX; i += Block.getBlockSize()) {
-            int height = (int) (Math.floor(groundHeightAt(i) / Block.getBlockSize()) * Block.getBlockSize());
+            int height = columnHeight(i);
             for (int j = 0; j < TERRAIN_DEPTH; j++){
                 Vector2 pos = new Vector2(i,height + j * Block.getBlockSize());
-                Renderable blockImage = new RectangleRenderable(ColorSupplier.approximateColor(BASE_GROUND_COLOR));
+                Renderable blockImage = ColorSupplier.approximateRectangle(BASE_GROUND_COLOR);
                 Block block = new Block(pos, new Vector2(Block.getBlockSize(),Block.getBlockSize()), blockImage);
                 if (j == 0) {block.setTag(Constants.GROUND_TAG);}
                 blockList.add(block);
@@ -76,4 +142,168 @@ public class Terrain {
         }
         return blockList;
     }
+
+    /**
+     * Returns a single render-only block drawing the ground of a whole chunk, down to the terrain depth.
+     * The image is baked on first use and cached, so revisiting the chunk does not bake it again.
+     * The block does not match the shape of the ground, so it should not take part in collisions.
+     *
+     * @param chunkIndex The index of the chunk, see {@link ChunkManager#chunkIndexAt(float)}.
+     * @return A block covering the ground of the chunk, tagged as ground.
+     */
+    public Block createBakedChunk(int chunkIndex) {
+        return createBakedChunk(chunkIndex, null, null);
+    }
+
+    /**
+     * Returns a single render-only block drawing the ground of a whole chunk, like
+     * {@link #createBakedChunk(int)}, using an image baked in advance if there is one.
+     * Otherwise the cached image is used, or the image is baked now from the given block colors.
+     *
+     * @param chunkIndex The index of the chunk, see {@link ChunkManager#chunkIndexAt(float)}.
+     * @param baked The image of the chunk baked by {@link #bakeChunk(int, float[], int[])}, which is
+     *              then cached, or null to use the cached image.
+     * @param blockColors The colors of the ground blocks, see {@link #blockColors(int)},
+     *                    or null to generate them.
+     * @return A block covering the ground of the chunk, tagged as ground.
+     */
+    public Block createBakedChunk(int chunkIndex, ChunkImageCache.Entry baked, int[] blockColors) {
+        long key = ChunkImageCache.keyOf(seed, chunkIndex);
+        ChunkImageCache.Entry entry = baked != null ? baked : imageCache.get(key);
+        if (entry == null) {
+            entry = bakeChunk(chunkIndex, columnHeights(chunkIndex),
+                    blockColors == null ? blockColors(chunkIndex) : blockColors);
+        }
+        imageCache.put(key, entry);
+        Block block = new Block(entry.getTopLeftCorner(), entry.getDimensions(), entry.getRenderable());
+        block.setTag(Constants.GROUND_TAG);
+        return block;
+    }
+
+    /**
+     * Returns the colors of the ground blocks of a chunk, from a sequence seeded by the world seed and
+     * the chunk index.
+     *
+     * @param chunkIndex The index of the chunk.
+     * @return The RGB color of each ground block, column by column from the top.
+     */
+    public int[] blockColors(int chunkIndex) {
+        int[] colors = new int[ChunkManager.getChunkSize() / Block.getBlockSize() * TERRAIN_DEPTH];
+        Random random = new Random(Objects.hash(seed, chunkIndex));
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = ColorSupplier.approximateColor(BASE_GROUND_COLOR, GROUND_COLOR_DELTA, random).getRGB();
+        }
+        return colors;
+    }
+
+    /**
+     * Returns whether the baked image of a chunk is cached.
+     *
+     * @param chunkIndex The index of the chunk.
+     * @return True if {@link #createBakedChunk(int)} would not need to bake the image.
+     */
+    public boolean hasBakedChunk(int chunkIndex) {
+        return imageCache.contains(ChunkImageCache.keyOf(seed, chunkIndex));
+    }
+
+    /**
+     * Computes the ground heights of the columns of a chunk from the noise, with a single bulk call.
+     * The heightmap is neither read nor written, so this can be called from any thread.
+     *
+     * @param chunkIndex The index of the chunk.
+     * @return The height of each column of the chunk, from left to right.
+     */
+    public float[] columnHeights(int chunkIndex) {
+        int firstColumn = ChunkManager.chunkMinX(chunkIndex) / Block.getBlockSize();
+        double[] xs = new double[ChunkManager.getChunkSize() / Block.getBlockSize()];
+        float[] heights = new float[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = (double) (firstColumn + i) * Block.getBlockSize();
+        }
+        noiseHeights(xs, heights);
+        return heights;
+    }
+
+    /**
+     * Caches known ground heights of the columns of a chunk, so they are not computed again.
+     *
+     * @param chunkIndex The index of the chunk.
+     * @param heights The height of each column of the chunk, see {@link #columnHeights(int)}.
+     */
+    public void restoreColumnHeights(int chunkIndex, float[] heights) {
+        heightmap.fill(ChunkManager.chunkMinX(chunkIndex) / Block.getBlockSize(), heights);
+    }
+
+    /**
+     * Rasterizes the ground blocks of a chunk into one image with the given heights and block colors.
+     * Only the arguments are read, so this can be called from any thread; the image is not cached.
+     *
+     * @param chunkIndex The index of the chunk.
+     * @param columnHeights The height of each column of the chunk, see {@link #columnHeights(int)}.
+     * @param blockColors The colors of the ground blocks, see {@link #blockColors(int)}.
+     * @return The baked image and its place in the world.
+     */
+    public ChunkImageCache.Entry bakeChunk(int chunkIndex, float[] columnHeights, int[] blockColors) {
+        int blockSize = Block.getBlockSize();
+        int minX = ChunkManager.chunkMinX(chunkIndex);
+        int columns = ChunkManager.getChunkSize() / blockSize;
+
+        int[] tops = new int[columns];
+        int minTop = Integer.MAX_VALUE;
+        int maxTop = Integer.MIN_VALUE;
+        for (int c = 0; c < columns; c++) {
+            tops[c] = (int) (Math.floor(columnHeights[c] / blockSize) * blockSize);
+            minTop = Math.min(minTop, tops[c]);
+            maxTop = Math.max(maxTop, tops[c]);
+        }
+
+        int height = maxTop - minTop + TERRAIN_DEPTH * blockSize;
+        BufferedImage image = new BufferedImage(columns * blockSize, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        for (int c = 0; c < columns; c++) {
+            for (int j = 0; j < TERRAIN_DEPTH; j++) {
+                graphics.setColor(new Color(blockColors[c * TERRAIN_DEPTH + j]));
+                graphics.fillRect(c * blockSize, tops[c] - minTop + j * blockSize, blockSize, blockSize);
+            }
+        }
+        graphics.dispose();
+        return new ChunkImageCache.Entry(new ImageRenderable(image),
+                new Vector2(minX, minTop), new Vector2(image.getWidth(), height));
+    }
+
+    /**
+     * Generates one block per run of adjacent columns at equal height, spanning the terrain depth.
+     */
+    private void createMergedColumns(int minX, int maxX, List<Block> blockList) {
+        int runStart = minX;
+        int runHeight = columnHeight(minX);
+        for (int i = minX + Block.getBlockSize(); i <= maxX; i += Block.getBlockSize()) {
+            int height = columnHeight(i);
+            if (height != runHeight) {
+                blockList.add(createRun(runStart, i, runHeight));
+                runStart = i;
+                runHeight = height;
+            }
+        }
+        blockList.add(createRun(runStart, maxX + Block.getBlockSize(), runHeight));
+    }
+
+    /**
+     * Creates a single ground block covering the columns in [startX, endX) down to the terrain depth.
+     */
+    private Block createRun(int startX, int endX, int height) {
+        Renderable runImage = ColorSupplier.approximateRectangle(BASE_GROUND_COLOR);
+        Block run = new Block(new Vector2(startX, height),
+                new Vector2(endX - startX, TERRAIN_DEPTH * Block.getBlockSize()), runImage);
+        run.setTag(Constants.GROUND_TAG);
+        return run;
+    }
+
+    /**
+     * Returns the height of the top block of the column at x, aligned to the block size.
+     */
+    private int columnHeight(int x) {
+        float height = heightmap.heightAtColumn(Math.floorDiv(x, Block.getBlockSize()));
+        return (int) (Math.floor(height / Block.getBlockSize()) * Block.getBlockSize());
+    }
 }
@@ -0,0 +1,302 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.world.trees.Leaf;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * The WorldIndex class is a spatial index of the world objects, bucketed by block-wide x-columns.
+ * Every registered object is stored in the bucket of each column its horizontal extent overlaps,
+ * and its column span is remembered so it can be removed without a search. The indexed objects
+ * are static, so an object is registered once at its position and never needs moving.
+ * Range, nearest-by-tag and segment queries visit only the columns they cover, so they take time
+ * proportional to the objects near the query rather than to the size of the world.
+ * Implements ChunkListener to register the objects of the loaded chunks, whether active or dormant,
+ * except for the leaves: a swaying leaf keeps resizing itself, so its remembered span would go stale.
+ * Not thread safe; it is meant to be used from the game thread only.
+ *
+ * @author fanteo12
+ */
+public class WorldIndex implements ChunkListener {
+
+    // constants
+    private static final int COLUMN_WIDTH = Block.getBlockSize();
+
+    // fields
+    private final HashMap<Integer, ArrayList<GameObject>> buckets;
+    private final IdentityHashMap<GameObject, int[]> spans;
+
+    /**
+     * Constructs an empty WorldIndex.
+     */
+    public WorldIndex() {
+        this.buckets = new HashMap<>();
+        this.spans = new IdentityHashMap<>();
+    }
+
+    /**
+     * Registers the objects of a loaded chunk, other than its leaves.
+     *
+     * @param chunk The chunk that was loaded.
+     */
+    @Override
+    public void onChunkLoaded(Chunk chunk) {
+        for (GameObject gameObject : chunk.getObjects()) {
+            if (!(gameObject instanceof Leaf)) {
+                add(gameObject);
+            }
+        }
+    }
+
+    /**
+     * Unregisters the objects of an unloaded chunk.
+     *
+     * @param chunk The chunk that was unloaded.
+     */
+    @Override
+    public void onChunkUnloaded(Chunk chunk) {
+        for (GameObject gameObject : chunk.getObjects()) {
+            if (!(gameObject instanceof Leaf)) {
+                remove(gameObject);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of registered objects.
+     *
+     * @return The object count.
+     */
+    public int size() {
+        return spans.size();
+    }
+
+    /**
+     * Returns whether an object is registered.
+     *
+     * @param gameObject The object to look up.
+     * @return True if the object is in the index.
+     */
+    public boolean contains(GameObject gameObject) {
+        return spans.containsKey(gameObject);
+    }
+
+    /**
+     * Registers an object at its current position. Does nothing if it is already registered.
+     *
+     * @param gameObject The object to register.
+     */
+    public void add(GameObject gameObject) {
+        if (spans.containsKey(gameObject)) {
+            return;
+        }
+        int[] span = spanOf(gameObject);
+        spans.put(gameObject, span);
+        for (int column = span[0]; column <= span[1]; column++) {
+            buckets.computeIfAbsent(column, key -> new ArrayList<>()).add(gameObject);
+        }
+    }
+
+    /**
+     * Unregisters an object. Does nothing if it is not registered.
+     *
+     * @param gameObject The object to unregister.
+     */
+    public void remove(GameObject gameObject) {
+        int[] span = spans.remove(gameObject);
+        if (span != null) {
+            removeFromBuckets(gameObject, span);
+        }
+    }
+
+    /**
+     * Collects the registered objects whose horizontal extent overlaps the given range.
+     * Each object is reported once, even if it spans several columns.
+     *
+     * @param minX The minimal x-coordinate of the range.
+     * @param maxX The maximal x-coordinate of the range.
+     * @param tag The tag of the objects to collect, or null to collect objects with any tag.
+     * @param result The list the objects are appended to.
+     */
+    public void queryRange(float minX, float maxX, String tag, List<GameObject> result) {
+        int firstColumn = columnAt(minX);
+        int lastColumn = columnAt(maxX);
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            ArrayList<GameObject> bucket = buckets.get(column);
+            if (bucket == null) {
+                continue;
+            }
+            for (GameObject gameObject : bucket) {
+                if (isFirstColumn(gameObject, column, firstColumn) && hasTag(gameObject, tag)) {
+                    float left = gameObject.getTopLeftCorner().x();
+                    if (left <= maxX && left + gameObject.getDimensions().x() >= minX) {
+                        result.add(gameObject);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the registered object with the given tag whose center is nearest to a point.
+     * Columns are searched in rings of growing distance from the point, and the search stops as soon
+     * as no unvisited column can hold a nearer object, or after the given number of rings.
+     *
+     * @param point The point to search around.
+     * @param tag The tag of the objects to consider, or null to consider objects with any tag.
+     * @param maxDistance The maximal distance of the object from the point.
+     * @return The nearest matching object, or null if none is within maxDistance.
+     */
+    public GameObject nearest(Vector2 point, String tag, float maxDistance) {
+        int center = columnAt(point.x());
+        int maxRing = (int) Math.ceil(maxDistance / COLUMN_WIDTH) + 1;
+        GameObject best = null;
+        float bestDistance = maxDistance * maxDistance;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // every column in this ring is at least this far horizontally from the point
+            float ringDistance = Math.max(0, (ring - 1) * COLUMN_WIDTH);
+            if (best != null && ringDistance * ringDistance > bestDistance) {
+                break;
+            }
+            // the ring is the single center column, then the two columns at this distance from it
+            for (int column = center - ring; column <= center + ring; column += Math.max(1, 2 * ring)) {
+                ArrayList<GameObject> bucket = buckets.get(column);
+                if (bucket == null) {
+                    continue;
+                }
+                for (GameObject gameObject : bucket) {
+                    if (!hasTag(gameObject, tag)) {
+                        continue;
+                    }
+                    Vector2 objectCenter = gameObject.getCenter();
+                    float dx = objectCenter.x() - point.x();
+                    float dy = objectCenter.y() - point.y();
+                    if (dx * dx + dy * dy <= bestDistance) {
+                        best = gameObject;
+                        bestDistance = dx * dx + dy * dy;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Collects the registered objects whose bounding box intersects the segment between two points.
+     * Each object is reported once, even if it spans several columns.
+     *
+     * @param from The start of the segment.
+     * @param to The end of the segment.
+     * @param tag The tag of the objects to collect, or null to collect objects with any tag.
+     * @param result The list the objects are appended to.
+     */
+    public void querySegment(Vector2 from, Vector2 to, String tag, List<GameObject> result) {
+        int firstColumn = columnAt(Math.min(from.x(), to.x()));
+        int lastColumn = columnAt(Math.max(from.x(), to.x()));
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            ArrayList<GameObject> bucket = buckets.get(column);
+            if (bucket == null) {
+                continue;
+            }
+            for (GameObject gameObject : bucket) {
+                if (isFirstColumn(gameObject, column, firstColumn) && hasTag(gameObject, tag)
+                        && intersectsSegment(gameObject, from, to)) {
+                    result.add(gameObject);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether the segment between two points intersects the bounding box of an object,
+     * clipping the segment against the box on both axes.
+     */
+    private static boolean intersectsSegment(GameObject gameObject, Vector2 from, Vector2 to) {
+        Vector2 topLeft = gameObject.getTopLeftCorner();
+        Vector2 dimensions = gameObject.getDimensions();
+        float[] range = {0, 1};
+        return clip(from.x(), to.x() - from.x(), topLeft.x(), topLeft.x() + dimensions.x(), range)
+                && clip(from.y(), to.y() - from.y(), topLeft.y(), topLeft.y() + dimensions.y(), range);
+    }
+
+    /**
+     * Narrows the parameter range of a segment to the part between two bounds on one axis.
+     *
+     * @return False if no part of the segment is between the bounds.
+     */
+    private static boolean clip(float start, float delta, float min, float max, float[] range) {
+        if (delta == 0) {
+            return start >= min && start <= max;
+        }
+        float t0 = (min - start) / delta;
+        float t1 = (max - start) / delta;
+        range[0] = Math.max(range[0], Math.min(t0, t1));
+        range[1] = Math.min(range[1], Math.max(t0, t1));
+        return range[0] <= range[1];
+    }
+
+    /**
+     * Returns whether a column is the first column of a query in which an object appears, so that
+     * objects spanning several columns are reported once.
+     */
+    private boolean isFirstColumn(GameObject gameObject, int column, int firstQueryColumn) {
+        return column == Math.max(spans.get(gameObject)[0], firstQueryColumn);
+    }
+
+    /**
+     * Returns whether an object has the given tag, or any tag if the given tag is null.
+     */
+    private static boolean hasTag(GameObject gameObject, String tag) {
+        return tag == null || tag.equals(gameObject.getTag());
+    }
+
+    /**
+     * Returns the first and last columns overlapped by the horizontal extent of an object.
+     */
+    private static int[] spanOf(GameObject gameObject) {
+        float left = gameObject.getTopLeftCorner().x();
+        return new int[]{columnAt(left), columnAt(left + gameObject.getDimensions().x())};
+    }
+
+    /**
+     * Returns the column containing an x-coordinate.
+     */
+    private static int columnAt(float x) {
+        return Math.floorDiv((int) Math.floor(x), COLUMN_WIDTH);
+    }
+
+    /**
+     * Removes an object from the buckets of all the columns of a span.
+     */
+    private void removeFromBuckets(GameObject gameObject, int[] span) {
+        for (int column = span[0]; column <= span[1]; column++) {
+            removeFromBucket(gameObject, column);
+        }
+    }
+
+    /**
+     * Removes an object from the bucket of a column, dropping the bucket once it is empty.
+     */
+    private void removeFromBucket(GameObject gameObject, int column) {
+        ArrayList<GameObject> bucket = buckets.get(column);
+        if (bucket == null) {
+            return;
+        }
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i) == gameObject) {
+                // order within a bucket does not matter
+                bucket.set(i, bucket.get(bucket.size() - 1));
+                bucket.remove(bucket.size() - 1);
+                break;
+            }
+        }
+        if (bucket.isEmpty()) {
+            buckets.remove(column);
+        }
+    }
+}
@@ -1,18 +1,21 @@
 package pepse.world.trees;
 
-import danogl.GameObject;
+import pepse.events.TreeCreationEvent;
 import pepse.world.Block;
+import pepse.world.ChunkManager;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.Random;
-import java.util.function.BiConsumer;
-import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
  * The Flora class is responsible for generating and managing trees within a specified range.
  * It uses randomness to determine where trees are placed.
+ * A tree is fully determined by its location and the seed, so the tree locations of a chunk are all
+ * that needs to be kept or stored, and every request builds fresh tree objects from them; no game
+ * object is ever shared between two chunks built for the same index.
  *
  * @author fanteo12
  */
@@ -23,26 +26,17 @@ public class Flora {
     private static final float TREE_PERCENT = 2;
 
     // fields
-    private final BiConsumer<GameObject, Integer> addGameObject;
-    private final Consumer<GameObject> removeGameObject;
     private final int seed;
-    private final ArrayList<Tree> trees;
     private final Function<Float, Float> getHeight;
 
     /**
      * Constructs a Flora instance for managing tree generation.
      *
      * @param getHeight Function to calculate the ground height at a given x-coordinate.
-     * @param addGameObject Function to add game objects to the game world.
-     * @param removeGameObject Function to remove game objects from the game world.
      * @param seed A seed for generating consistent randomness.
      */
-    public Flora(Function<Float,Float> getHeight, BiConsumer<GameObject,Integer> addGameObject,
-                 Consumer<GameObject> removeGameObject, int seed) {
-        this.addGameObject = addGameObject;
-        this.removeGameObject = removeGameObject;
+    public Flora(Function<Float,Float> getHeight, int seed) {
         this.seed = seed;
-        this.trees = new ArrayList<>();
         this.getHeight = getHeight;
     }
 
@@ -51,20 +45,77 @@ public class Flora {
      *
      * @param minX The minimum x-coordinate of the range.
      * @param maxX The maximum x-coordinate of the range.
-     * @return A list of Tree objects generated within the range.
+     * @return A list of new Tree objects whose location is within the range.
      */
     public ArrayList<Tree> createInRange(int minX, int maxX) {
-        for (int i = (minX / Block.getBlockSize()) * Block.getBlockSize(); i < maxX ; i += Block.getBlockSize()) {
-            Random random = new Random(Objects.hash(i,seed));
+        ArrayList<Tree> trees = new ArrayList<>();
+        for (int chunk = ChunkManager.chunkIndexAt(minX); chunk <= ChunkManager.chunkIndexAt(maxX - 1); chunk++) {
+            for (float location : scanTreeLocations(chunk)) {
+                if (location >= minX && location < maxX) {
+                    trees.add(createTree(location));
+                }
+            }
+        }
+        return trees;
+    }
+
+    /**
+     * Creates new trees at known locations.
+     *
+     * @param locations The x-coordinates of the trees, see {@link #scanTreeLocations(int)}.
+     * @return A list of new Tree objects, in the order of the locations.
+     */
+    public ArrayList<Tree> createTrees(float[] locations) {
+        ArrayList<Tree> trees = new ArrayList<>(locations.length);
+        for (float location : locations) {
+            trees.add(createTree(location));
+        }
+        return trees;
+    }
+
+    /**
+     * Finds the columns of a chunk that have a tree. The result depends only on the seed and the chunk
+     * index, so this can be called from any thread.
+     *
+     * @param chunk The chunk index.
+     * @return The x-coordinates of the trees of the chunk.
+     */
+    public float[] scanTreeLocations(int chunk) {
+        float[] locations = new float[ChunkManager.getChunkSize() / Block.getBlockSize()];
+        int count = 0;
+        int minX = ChunkManager.chunkMinX(chunk);
+        int maxX = minX + ChunkManager.getChunkSize();
+        for (int i = minX; i < maxX ; i += Block.getBlockSize()) {
+            Random random = columnRandom(i);
             float rand = random.nextInt(TREES_RANDOMNESS);
 
             // probability of 0.2 for a tree to be in a given column
             if (rand <= TREE_PERCENT){
-                Tree tree = new Tree(i, getHeight,addGameObject,removeGameObject,random);
+                locations[count++] = i;
                 i += Block.getBlockSize() * 2;
-                trees.add(tree);
             }
         }
-        return trees;
+        return Arrays.copyOf(locations, count);
+    }
+
+    /**
+     * Creates the tree of a column from the same seeded generator that placed it, reporting it to the
+     * flight recorder.
+     */
+    private Tree createTree(float location) {
+        TreeCreationEvent event = new TreeCreationEvent();
+        event.start(ChunkManager.chunkIndexAt(location));
+        Random random = columnRandom((int) location);
+        random.nextInt(TREES_RANDOMNESS);
+        Tree tree = new Tree(location, getHeight, random);
+        event.finish(tree.getLeaves().size(), tree.getFruits().size());
+        return tree;
+    }
+
+    /**
+     * Returns the generator that decides whether a column has a tree, and then generates the tree.
+     */
+    private Random columnRandom(int column) {
+        return new Random(Objects.hash(column, seed));
     }
 }
@@ -1,30 +1,29 @@
 package pepse.world.trees;
 
 import danogl.GameObject;
-import danogl.collisions.Collision;
-import danogl.collisions.Layer;
-import danogl.components.ScheduledTask;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 import pepse.util.Constants;
 
-import java.util.function.BiConsumer;
-import java.util.function.Consumer;
-
 /**
  * The Fruit class represents a fruit object in the game world.
- * Fruits can interact with the Avatar, disappear on collision, and reappear after a day cycle.
+ * Fruits are eaten when the avatar overlaps them, disappear, and reappear after a while.
+ * Fruits do not take part in collisions; the avatar picks them up through a {@link FruitPicker}.
+ * A fruit is identified by the index of its chunk and its index within the chunk, and an eaten fruit
+ * stays in the game, hidden, until it grows back.
  *
  * @author fanteo12
  */
 public class Fruit extends GameObject {
 
     // constants
-    private static final float FRUIT_CYCLE = 30f;
+    private static final float VISIBLE = 1;
+    private static final float HIDDEN = 0;
 
     // fields
-    private final Consumer<GameObject> removeGameObject;
-    private final BiConsumer<GameObject, Integer> addGameObject;
+    private int chunkIndex;
+    private int fruitIndex;
+    private boolean eaten;
 
     /**
      * Construct a new GameObject instance.
@@ -35,33 +34,57 @@ public class Fruit extends GameObject {
      * @param renderable    The renderable representing the object. Can be null, in which case
      *                      the GameObject will not be rendered.
      */
-    public Fruit(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
-                 Consumer<GameObject> removeGameObject, BiConsumer<GameObject, Integer> addGameObject) {
+    public Fruit(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable) {
         super(topLeftCorner, dimensions, renderable);
         
         this.setTag(Constants.FRUIT_TAG);
-        this.removeGameObject = removeGameObject;
-        this.addGameObject = addGameObject;
     }
 
     /**
-     * Handles collision events involving the fruit.
-     * If the fruit collides with the avatar, it is removed and scheduled to reappear after a delay.
+     * Sets the identity of the fruit.
      *
-     * @param other The other GameObject involved in the collision.
-     * @param collision Details about the collision.
+     * @param chunkIndex The index of the chunk of the fruit.
+     * @param fruitIndex The index of the fruit within its chunk.
      */
-    @Override
-    public void onCollisionEnter(GameObject other, Collision collision) {
-        super.onCollisionEnter(other, collision);
+    public void setIdentity(int chunkIndex, int fruitIndex) {
+        this.chunkIndex = chunkIndex;
+        this.fruitIndex = fruitIndex;
+    }
 
-        if (other.getTag().equals(Constants.AVATAR_TAG)){
-            removeGameObject.accept(this);
-        }
+    /**
+     * Returns the index of the chunk of the fruit.
+     *
+     * @return The chunk index.
+     */
+    public int getChunkIndex() {
+        return chunkIndex;
+    }
 
-        new ScheduledTask(other,
-                FRUIT_CYCLE,
-                false,
-                ()->addGameObject.accept(this, Layer.DEFAULT));
+    /**
+     * Returns the index of the fruit within its chunk.
+     *
+     * @return The fruit index.
+     */
+    public int getFruitIndex() {
+        return fruitIndex;
+    }
+
+    /**
+     * Returns whether the fruit is eaten.
+     *
+     * @return True if the fruit is eaten and has not grown back yet.
+     */
+    public boolean isEaten() {
+        return eaten;
+    }
+
+    /**
+     * Hides or shows the fruit.
+     *
+     * @param eaten True to hide the fruit, false to show it again.
+     */
+    public void setEaten(boolean eaten) {
+        this.eaten = eaten;
+        renderer().setOpaqueness(eaten ? HIDDEN : VISIBLE);
     }
 }
@@ -0,0 +1,253 @@
+package pepse.world.trees;
+
+import danogl.GameObject;
+import pepse.events.FruitRegrowthEvent;
+import pepse.util.TimerWheel;
+import pepse.world.Chunk;
+import pepse.world.ChunkDelta;
+import pepse.world.ChunkListener;
+import pepse.world.SaveStore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * The FruitLedger class owns the eaten state of every fruit in the world, keyed by fruit identity,
+ * which is the index of the fruit's chunk and the index of the fruit within the chunk.
+ * Eaten fruits are hidden rather than removed, and grow back after a fixed time on a game clock that
+ * keeps running across saves. The state of a chunk is kept in a {@link ChunkDelta}, which is read from
+ * the save store the first time the chunk is loaded, and written back when it changed and the chunk
+ * is unloaded or the game is saved. Pending regrowths are scheduled on a {@link TimerWheel} keyed by
+ * fruit identity, so eating and growing back a fruit cost O(1) however many fruits are pending.
+ * Implements ChunkListener to apply the state to loaded fruits.
+ * Methods are synchronized, since the game is also saved from a shutdown hook.
+ *
+ * @author fanteo12
+ */
+public class FruitLedger implements ChunkListener {
+
+    // constants
+    private static final double REGROWTH_TIME = 30;
+    private static final double TICK_SECONDS = 0.05;
+
+    // fields
+    private final SaveStore saveStore;
+    private final HashMap<Integer, ChunkDelta> deltas;
+    private final HashMap<Integer, Fruit[]> loadedFruits;
+    private final HashSet<Integer> droppedWithTimers;
+    private final TimerWheel regrowths;
+    private final LongConsumer onRegrowthDue;
+    private double clock;
+
+    /**
+     * Constructs a FruitLedger.
+     *
+     * @param saveStore The store to read and write chunk deltas, or null to keep them in memory only.
+     * @param clock The initial time of the game clock, in seconds.
+     */
+    public FruitLedger(SaveStore saveStore, double clock) {
+        this.saveStore = saveStore;
+        this.deltas = new HashMap<>();
+        this.loadedFruits = new HashMap<>();
+        this.droppedWithTimers = new HashSet<>();
+        this.regrowths = new TimerWheel(tickAt(clock));
+        this.onRegrowthDue = this::onRegrowthDue;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the time of the game clock.
+     *
+     * @return The clock, in seconds.
+     */
+    public synchronized double getClock() {
+        return clock;
+    }
+
+    /**
+     * Hides a fruit and schedules it to grow back. Does nothing if the fruit is already eaten.
+     *
+     * @param fruit The fruit that was eaten.
+     */
+    public synchronized void eat(Fruit fruit) {
+        ChunkDelta delta = deltaOf(fruit.getChunkIndex());
+        if (delta.isEaten(fruit.getFruitIndex())) {
+            return;
+        }
+        double regrowthTime = clock + REGROWTH_TIME;
+        delta.markEaten(fruit.getFruitIndex(), regrowthTime);
+        scheduleRegrowth(fruit.getChunkIndex(), fruit.getFruitIndex(), regrowthTime);
+        fruit.setEaten(true);
+    }
+
+    /**
+     * Advances the game clock, and grows back the fruits whose regrowth time passed.
+     *
+     * @param deltaTime Time elapsed since the last update.
+     */
+    public synchronized void update(float deltaTime) {
+        clock += deltaTime;
+        regrowths.advance(tickAt(clock), onRegrowthDue);
+    }
+
+    /**
+     * Returns the number of scheduled regrowths, including those that became stale.
+     *
+     * @return The number of timers in the regrowth wheel.
+     */
+    public synchronized int getPendingRegrowths() {
+        return regrowths.size();
+    }
+
+    /**
+     * Applies the saved state to the fruits of a loaded chunk. Fruits whose regrowth time passed while
+     * the chunk was not loaded grow back now, in one pass over the eaten fruits of the chunk.
+     *
+     * @param chunk The chunk that was loaded.
+     */
+    @Override
+    public synchronized void onChunkLoaded(Chunk chunk) {
+        ArrayList<Fruit> fruits = new ArrayList<>();
+        for (GameObject gameObject : chunk.getObjects()) {
+            if (gameObject instanceof Fruit) {
+                fruits.add((Fruit) gameObject);
+            }
+        }
+        Fruit[] byIndex = new Fruit[fruits.size()];
+        for (Fruit fruit : fruits) {
+            int fruitIndex = fruit.getFruitIndex();
+            if (fruitIndex >= 0 && fruitIndex < byIndex.length) {
+                byIndex[fruitIndex] = fruit;
+            }
+            fruit.setEaten(false);
+        }
+        loadedFruits.put(chunk.getIndex(), byIndex);
+
+        ChunkDelta delta = deltaOf(chunk.getIndex());
+        FruitRegrowthEvent event = new FruitRegrowthEvent();
+        event.start(chunk.getIndex());
+        int regrown = 0;
+        for (int i = delta.nextEaten(0); i != -1; i = delta.nextEaten(i + 1)) {
+            if (delta.getRegrowthTime(i) <= clock) {
+                delta.clear(i);
+                regrown++;
+            } else if (i < byIndex.length && byIndex[i] != null) {
+                byIndex[i].setEaten(true);
+            }
+        }
+        if (regrown > 0) {
+            event.finish(regrown);
+        }
+    }
+
+    /**
+     * Forgets the fruits of an unloaded chunk, and saves its state if it changed. The state itself is
+     * forgotten too when it can be recovered: when no fruit of the chunk is eaten, or when the save
+     * store has it.
+     *
+     * @param chunk The chunk that was unloaded.
+     */
+    @Override
+    public synchronized void onChunkUnloaded(Chunk chunk) {
+        loadedFruits.remove(chunk.getIndex());
+        ChunkDelta delta = deltas.get(chunk.getIndex());
+        if (delta == null) {
+            return;
+        }
+        boolean recoverable = delta.getEatenCount() == 0 || saveStore != null
+                && (!delta.isDirty() || saveStore.saveChunk(chunk.getIndex(), delta));
+        if (recoverable) {
+            // the state is empty, or it is read again from the store when the chunk is loaded
+            deltas.remove(chunk.getIndex());
+            if (delta.getEatenCount() > 0) {
+                droppedWithTimers.add(chunk.getIndex());
+            }
+        }
+    }
+
+    /**
+     * Saves the state of every chunk that changed since it was last saved.
+     */
+    public synchronized void flush() {
+        if (saveStore == null) {
+            return;
+        }
+        for (Map.Entry<Integer, ChunkDelta> entry : deltas.entrySet()) {
+            if (entry.getValue().isDirty()) {
+                saveStore.saveChunk(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns the delta of a chunk, reading it from the save store when it is not in memory. The
+     * pending regrowths of a delta read from the store are scheduled, unless their timers are still in
+     * the wheel from before the delta was dropped.
+     */
+    private ChunkDelta deltaOf(int chunkIndex) {
+        ChunkDelta delta = deltas.get(chunkIndex);
+        if (delta == null) {
+            delta = saveStore == null ? new ChunkDelta() : saveStore.loadChunk(chunkIndex);
+            deltas.put(chunkIndex, delta);
+            if (!droppedWithTimers.remove(chunkIndex)) {
+                for (int i = delta.nextEaten(0); i != -1; i = delta.nextEaten(i + 1)) {
+                    scheduleRegrowth(chunkIndex, i, delta.getRegrowthTime(i));
+                }
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Schedules a fruit to grow back at the given time of the game clock.
+     */
+    private void scheduleRegrowth(int chunkIndex, int fruitIndex, double time) {
+        long key = ((long) chunkIndex << Integer.SIZE) | (fruitIndex & 0xFFFFFFFFL);
+        regrowths.schedule(key, deadlineTick(time));
+    }
+
+    /**
+     * Grows back the fruit of an expired regrowth timer, unless the timer became stale.
+     */
+    private void onRegrowthDue(long key) {
+        int chunkIndex = (int) (key >> Integer.SIZE);
+        int fruitIndex = (int) key;
+        ChunkDelta delta = deltas.get(chunkIndex);
+        // the chunk may have been saved and forgotten, or the fruit grown back or eaten again since
+        if (delta != null && delta.isEaten(fruitIndex)
+                && deadlineTick(delta.getRegrowthTime(fruitIndex)) <= regrowths.getCurrentTick()) {
+            FruitRegrowthEvent event = new FruitRegrowthEvent();
+            event.start(chunkIndex);
+            regrow(chunkIndex, fruitIndex, delta);
+            event.finish(1);
+        }
+    }
+
+    /**
+     * Returns the first regrowth tick that starts at or after the given time of the game clock.
+     */
+    private static long deadlineTick(double time) {
+        return (long) Math.ceil(time / TICK_SECONDS);
+    }
+
+    /**
+     * Returns the last regrowth tick that started by the given time of the game clock.
+     */
+    private static long tickAt(double time) {
+        return (long) Math.floor(time / TICK_SECONDS);
+    }
+
+    /**
+     * Marks a fruit as grown back, and shows it if its chunk is loaded.
+     */
+    private void regrow(int chunkIndex, int fruitIndex, ChunkDelta delta) {
+        delta.clear(fruitIndex);
+        Fruit[] fruits = loadedFruits.get(chunkIndex);
+        if (fruits != null && fruitIndex < fruits.length && fruits[fruitIndex] != null) {
+            fruits[fruitIndex].setEaten(false);
+        }
+    }
+}
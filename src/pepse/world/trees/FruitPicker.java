@@ -0,0 +1,63 @@
+package pepse.world.trees;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.util.Constants;
+import pepse.world.WorldIndex;
+
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * The FruitPicker class lets the avatar eat the fruits it overlaps, without the physics engine.
+ * Once per frame the bounds of the avatar are tested against the fruits that the shared
+ * {@link WorldIndex} holds in the columns the avatar covers, and against no other object.
+ * Fruits can therefore stay out of the collision pass, where every fruit would be paired with every
+ * nearby leaf and block.
+ *
+ * @author fanteo12
+ */
+public class FruitPicker {
+
+    // fields
+    private final WorldIndex worldIndex;
+    private final Consumer<Fruit> eatFruit;
+    private final ArrayList<GameObject> candidates;
+
+    /**
+     * Constructs a FruitPicker.
+     *
+     * @param worldIndex The index of the objects in the loaded chunks, fruits included.
+     * @param eatFruit Function called with each fruit the avatar overlaps, unless it is already eaten.
+     */
+    public FruitPicker(WorldIndex worldIndex, Consumer<Fruit> eatFruit) {
+        this.worldIndex = worldIndex;
+        this.eatFruit = eatFruit;
+        this.candidates = new ArrayList<>();
+    }
+
+    /**
+     * Eats every fruit that is not eaten yet and overlaps the bounds of the given object.
+     *
+     * @param picker The object that picks fruits, which is the avatar.
+     * @return The number of fruits eaten.
+     */
+    public int pick(GameObject picker) {
+        Vector2 topLeft = picker.getTopLeftCorner();
+        Vector2 dimensions = picker.getDimensions();
+        float minY = topLeft.y();
+        float maxY = minY + dimensions.y();
+        worldIndex.queryRange(topLeft.x(), topLeft.x() + dimensions.x(), Constants.FRUIT_TAG, candidates);
+        int eaten = 0;
+        for (GameObject candidate : candidates) {
+            Fruit fruit = (Fruit) candidate;
+            float fruitMinY = fruit.getTopLeftCorner().y();
+            if (!fruit.isEaten() && fruitMinY <= maxY && fruitMinY + fruit.getDimensions().y() >= minY) {
+                eatFruit.accept(fruit);
+                eaten++;
+            }
+        }
+        candidates.clear();
+        return eaten;
+    }
+}
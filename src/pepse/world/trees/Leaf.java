@@ -1,8 +1,6 @@
 package pepse.world.trees;
 
 import danogl.GameObject;
-import danogl.components.ScheduledTask;
-import danogl.components.Transition;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 import pepse.util.Constants;
@@ -10,6 +8,7 @@ import pepse.util.Constants;
 /**
  * The Leaf class represents a leaf object in the game world.
  * Leaves oscillate in angle and width over time to create a natural swaying effect.
+ * The oscillation itself is driven by the {@link LeafSwaySystem}.
  *
  * @author fanteo12
  */
@@ -17,12 +16,14 @@ public class Leaf extends GameObject {
 
     // constants
     private static final String LEAF_TAG = "leaf";
-    private static final Float START_ANGLE = 0f;
-    private static final Float END_ANGLE = 100f;
-    private static final Vector2 MAX_LEAF_WIDTH = new Vector2(45,45);
+    private static final float START_ANGLE = 0f;
+    private static final float END_ANGLE = 100f;
+    private static final float MAX_LEAF_WIDTH = 45;
 
     // fields
     private final float leafCycle;
+    private final float swayDelay;
+    private float swayProgress;
 
     /**
      * Construct a new GameObject instance.
@@ -32,40 +33,43 @@ public class Leaf extends GameObject {
      * @param dimensions    Width and height in window coordinates.
      * @param renderable    The renderable representing the object. Can be null, in which case
      *                      the GameObject will not be rendered.
+     * @param leafCycle     The time it takes the leaf to sway in one direction.
+     * @param randTime      The time before the leaf starts swaying.
      */
     public Leaf(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,float leafCycle, float randTime) {
         super(topLeftCorner, dimensions, renderable);
 
         this.setTag(LEAF_TAG);
         this.leafCycle = leafCycle;
-        new ScheduledTask(this,randTime,true,()->{changeAngle();changeWidth();});
+        this.swayDelay = randTime;
     }
 
     /**
-     * transition for moving the leaf back and forth
+     * Returns the time it takes the leaf to sway in one direction.
      */
-    private void changeWidth() {
-        new Transition<>(this,
-                (Float angle) -> this.renderer().setRenderableAngle(angle),
-                START_ANGLE,
-                END_ANGLE,
-                Transition.LINEAR_INTERPOLATOR_FLOAT,
-                leafCycle,
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH,
-                null);
+    public float getLeafCycle() {
+        return leafCycle;
     }
 
     /**
-     * transition for changing the leaf width
+     * Returns the time before the leaf starts swaying.
      */
-    private void changeAngle() {
-        new Transition<>(this,
-                this::setDimensions,
-                new Vector2(Constants.LEAF_SIZE,Constants.LEAF_SIZE),
-                MAX_LEAF_WIDTH,
-                Transition.LINEAR_INTERPOLATOR_VECTOR, leafCycle,
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH,
-                null);
+    public float getSwayDelay() {
+        return swayDelay;
     }
 
+    /**
+     * Sets the angle and width of the leaf along its sway.
+     *
+     * @param progress 0 for the resting leaf, 1 for the leaf at its maximal angle and width.
+     */
+    public void sway(float progress) {
+        if (progress == swayProgress) {
+            return;
+        }
+        swayProgress = progress;
+        this.renderer().setRenderableAngle(START_ANGLE + progress * (END_ANGLE - START_ANGLE));
+        float width = Constants.LEAF_SIZE + progress * (MAX_LEAF_WIDTH - Constants.LEAF_SIZE);
+        this.setDimensions(new Vector2(width, width));
+    }
 }
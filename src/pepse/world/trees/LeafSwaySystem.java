@@ -0,0 +1,120 @@
+package pepse.world.trees;
+
+import danogl.GameObject;
+import pepse.world.Chunk;
+import pepse.world.ChunkListener;
+import pepse.world.ChunkManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The LeafSwaySystem class sways all the leaves of the loaded chunks from a single loop.
+ * The leaves of each chunk are kept in primitive arrays of sway delays and cycles, and a leaf's sway is
+ * computed from a shared clock, so leaves need no per-leaf components. Only the chunks overlapping the
+ * visible range are visited, and only the leaves inside it are updated, so the per-frame cost scales
+ * with the visible leaves.
+ *
+ * @author fanteo12
+ */
+public class LeafSwaySystem implements ChunkListener {
+
+    // constants
+    private static final int BACK_AND_FORTH = 2;
+
+    /**
+     * The leaves of a single chunk.
+     */
+    private static class LeafGroup {
+        private final Leaf[] leaves;
+        private final float[] delays;
+        private final float[] cycles;
+
+        /**
+         * Copies the given leaves and their sway parameters into arrays.
+         */
+        LeafGroup(ArrayList<Leaf> leafList) {
+            leaves = leafList.toArray(new Leaf[0]);
+            delays = new float[leaves.length];
+            cycles = new float[leaves.length];
+            for (int i = 0; i < leaves.length; i++) {
+                delays[i] = leaves[i].getSwayDelay();
+                cycles[i] = leaves[i].getLeafCycle();
+            }
+        }
+    }
+
+    // fields
+    private final HashMap<Integer, LeafGroup> groupsByChunk;
+    private float time;
+
+    /**
+     * Constructs a LeafSwaySystem with no registered leaves.
+     */
+    public LeafSwaySystem() {
+        this.groupsByChunk = new HashMap<>();
+        this.time = 0;
+    }
+
+    /**
+     * Registers the leaves of a loaded chunk.
+     *
+     * @param chunk The loaded chunk.
+     */
+    @Override
+    public void onChunkLoaded(Chunk chunk) {
+        ArrayList<Leaf> leaves = new ArrayList<>();
+        for (GameObject gameObject : chunk.getObjects()) {
+            if (gameObject instanceof Leaf) {
+                leaves.add((Leaf) gameObject);
+            }
+        }
+        groupsByChunk.put(chunk.getIndex(), new LeafGroup(leaves));
+    }
+
+    /**
+     * Unregisters the leaves of an unloaded chunk.
+     *
+     * @param chunk The unloaded chunk.
+     */
+    @Override
+    public void onChunkUnloaded(Chunk chunk) {
+        groupsByChunk.remove(chunk.getIndex());
+    }
+
+    /**
+     * Advances the shared clock and sways the registered leaves within the visible range.
+     *
+     * @param deltaTime Time elapsed since the last update.
+     * @param minX The minimal visible x-coordinate.
+     * @param maxX The maximal visible x-coordinate.
+     */
+    public void update(float deltaTime, float minX, float maxX) {
+        time += deltaTime;
+        for (int chunk = ChunkManager.chunkIndexAt(minX); chunk <= ChunkManager.chunkIndexAt(maxX); chunk++) {
+            LeafGroup group = groupsByChunk.get(chunk);
+            if (group == null) {
+                continue;
+            }
+            for (int i = 0; i < group.leaves.length; i++) {
+                Leaf leaf = group.leaves[i];
+                float x = leaf.getTopLeftCorner().x();
+                if (x >= minX && x <= maxX) {
+                    leaf.sway(progress(group.delays[i], group.cycles[i]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the progress of a leaf along its sway, going back and forth between 0 and 1.
+     */
+    private float progress(float delay, float cycle) {
+        float phase = (time - delay) / cycle;
+        if (phase <= 0) {
+            return 0;
+        }
+        phase %= BACK_AND_FORTH;
+        return phase < 1 ? phase : BACK_AND_FORTH - phase;
+    }
+}
@@ -1,8 +1,6 @@
 package pepse.world.trees;
 
 import danogl.GameObject;
-import danogl.gui.rendering.OvalRenderable;
-import danogl.gui.rendering.RectangleRenderable;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 import pepse.util.ColorSupplier;
@@ -11,8 +9,6 @@ import pepse.world.Block;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.Random;
-import java.util.function.BiConsumer;
-import java.util.function.Consumer;
 import java.util.function.Function;
 
 import static pepse.util.Constants.LEAF_SIZE;
@@ -20,6 +16,8 @@ import static pepse.util.Constants.LEAF_SIZE;
 /**
  * Represents a tree object in the game world. A tree consists of a trunk, leaves, and fruits.
  * The tree is generated procedurally based on various parameters such as location and height.
+ * Colors are drawn from their own generator, seeded from the tree's, so the shape of the tree does not
+ * depend on how many values the color supplier consumes, which changes with its palette setting.
  *
  * @author fanteo12
  */
@@ -45,27 +43,24 @@ public class Tree {
     // fields
     private final Function<Float, Float> getHeight;
     private final Random random;
-    private final BiConsumer<GameObject, Integer> addGameObject;
-    private final Consumer<GameObject> removeGameObject;
+    private final Random colorRandom;
+    private final float location;
     private Trunk trunk;
     private final ArrayList<GameObject> leaves;
-    private final ArrayList<GameObject> fruits;
+    private final ArrayList<Fruit> fruits;
 
     /**
      * Constructs a new Tree object.
      *
      * @param location The x-coordinate of the tree's base.
      * @param getHeight Function to determine the ground height at a specific location.
-     * @param addGameObject Function to add objects to the game world.
-     * @param removeGameObject Function to remove objects from the game world.
      * @param random Random object for procedural generation.
      */
-    public Tree (float location, Function<Float,Float> getHeight, BiConsumer<GameObject,
-            Integer> addGameObject, Consumer<GameObject> removeGameObject, Random random){
+    public Tree (float location, Function<Float,Float> getHeight, Random random){
         this.getHeight = getHeight;
-        this.addGameObject = addGameObject;
-        this.removeGameObject = removeGameObject;
         this.random = random;
+        this.colorRandom = new Random(random.nextLong());
+        this.location = location;
         this.leaves = new ArrayList<>();
         this.fruits = new ArrayList<>();
         createTrunk(location,getHeight);
@@ -77,12 +72,13 @@ public class Tree {
      */
     public void createTreeTop(){
         for (float r =  trunk.getCenter().x() - TOP_WIDTH; r <= trunk.getCenter().x() + TOP_WIDTH; r += LEAF_SIZE){
+            float groundHeight = getHeight.apply(r);
             for (float c = trunk.getCenter().y() - Block.getBlockSize(); c >= trunk.getTopLeftCorner().y() - TOP_WIDTH; c -= LEAF_SIZE){
                 int rand = random.nextInt(LEAVES_FRUITS_RAND);
-                if (rand <= LEAVES_PERCENT && getHeight.apply(r) >= c){
+                if (rand <= LEAVES_PERCENT && groundHeight >= c){
                     createLeaf(r,c);
                 }
-                else if(rand <= FRUIT_PERCENT && getHeight.apply(r) >= c){
+                else if(rand <= FRUIT_PERCENT && groundHeight >= c){
                     createFruit(r,c,rand);
                 }
             }
@@ -101,11 +97,9 @@ public class Tree {
         } else {
             fruitColor = BLUE_FRUIT;
         }
-        GameObject fruit = new Fruit(new Vector2(r,c),
+        Fruit fruit = new Fruit(new Vector2(r,c),
                             new Vector2(FRUIT_SIZE,FRUIT_SIZE),
-                            new OvalRenderable(ColorSupplier.approximateColor(fruitColor,COLOR_DELTA)),
-                            this.removeGameObject,
-                            this.addGameObject);
+                            ColorSupplier.approximateOval(fruitColor,COLOR_DELTA,colorRandom));
         fruits.add(fruit);
     }
 
@@ -116,7 +110,7 @@ public class Tree {
         float randTime = random.nextFloat() * RAND_TIME_FACTOR;
         GameObject leaf = new Leaf(new Vector2(r,c),
                                 new Vector2(LEAF_SIZE,LEAF_SIZE),
-                                new RectangleRenderable(ColorSupplier.approximateColor(LEAF_COLOR,COLOR_DELTA)),
+                                ColorSupplier.approximateRectangle(LEAF_COLOR,COLOR_DELTA,colorRandom),
                                 LEAF_CYCLE,
                                 randTime);
         leaves.add(leaf);
@@ -126,13 +120,20 @@ public class Tree {
      * Creates the trunk of the tree.
      */
     private void createTrunk(float location, Function<Float,Float> getHeight){
-        Renderable trunkImage = new RectangleRenderable(ColorSupplier.approximateColor(TRUNK_COLOR,COLOR_DELTA/2));
+        Renderable trunkImage = ColorSupplier.approximateRectangle(TRUNK_COLOR,COLOR_DELTA/2,colorRandom);
         float trunkHeight = random.nextInt(TRUNK_MIN_HEIGHT,TRUNK_MAX_HEIGHT);
         Vector2 trunkDimensions = new Vector2(TRUNK_WIDTH,trunkHeight);
         this.trunk = new Trunk(Vector2.ZERO,trunkDimensions,trunkImage);
         trunk.setTopLeftCorner(new Vector2(location,getHeight.apply(location) - trunkHeight));
     }
 
+    /**
+     * Returns the x-coordinate of the tree's base.
+     */
+    public float getLocation() {
+        return location;
+    }
+
     /**
      * Returns the tree's stump.
      */
@@ -150,7 +151,7 @@ public class Tree {
     /**
      * Returns the list of fruits.
      */
-    public ArrayList<GameObject> getFruits() {
+    public ArrayList<Fruit> getFruits() {
         return fruits;
     }
 }
@@ -0,0 +1,59 @@
+package pepse.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the bulk evaluation of {@link NoiseGenerator}, vectorized or not, agrees with its scalar
+ * evaluation within the documented float precision.
+ *
+ * @author fanteo12
+ */
+public class NoiseGeneratorTest {
+
+    // constants
+    private static final double[] SEEDS = {10, 13.5, 19, -7.25};
+    private static final int[] START_POINTS = {30, 210, 512};
+    private static final double[] FACTORS = {1, 210, 700};
+    private static final double MAX_X = 50000;
+    // not a multiple of any vector length, so the scalar tail of a bulk call is exercised too
+    private static final int SAMPLES = 20011;
+
+    /**
+     * Checks the bulk calls of the game's configuration run on the vectorized kernel, so that the
+     * agreement test below covers it. The test task runs with the Vector API module.
+     */
+    @Test
+    public void bulkCallsAreVectorized() {
+        assertTrue(new NoiseGenerator(SEEDS[0], START_POINTS[0]).isVectorized());
+    }
+
+    /**
+     * Checks every bulk result is within one float ulp of the scalar result rounded to a float, over
+     * integer and fractional seeds, several start points and factors, and |x| up to 50000.
+     */
+    @Test
+    public void bulkAgreesWithScalarWithinFloatPrecision() {
+        double[] xs = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            // spread over the range, off the lattice points
+            xs[i] = -MAX_X + 2 * MAX_X * i / SAMPLES + (i % 7) * 0.13;
+        }
+        float[] out = new float[SAMPLES];
+        for (double seed : SEEDS) {
+            for (int startPoint : START_POINTS) {
+                NoiseGenerator generator = new NoiseGenerator(seed, startPoint);
+                for (double factor : FACTORS) {
+                    generator.noise(xs, factor, out);
+                    for (int i = 0; i < SAMPLES; i++) {
+                        float scalar = (float) generator.noise(xs[i], factor);
+                        assertTrue(Math.abs(out[i] - scalar) <= Math.ulp(scalar),
+                                "x=" + xs[i] + " seed=" + seed + " start=" + startPoint
+                                        + " factor=" + factor + ": bulk " + out[i] + ", scalar " + scalar);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package pepse.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that the timers of a {@link TimerWheel} expire exactly at their deadline, whichever level they
+ * are scheduled in, and however many level boundaries they cascade across.
+ *
+ * @author fanteo12
+ */
+public class TimerWheelTest {
+
+    // constants
+    private static final long LEVEL_1 = 1L << 6;
+    private static final long LEVEL_2 = 1L << 12;
+    private static final long LEVEL_3 = 1L << 18;
+    private static final long MAX_DELAY = (1L << 24) - 1;
+
+    /**
+     * Schedules timers right before, at and after each level boundary, from start ticks that are and
+     * are not aligned on a slot, and checks every timer expires at its deadline.
+     */
+    @Test
+    public void cascadesAcrossLevelBoundaries() {
+        long[] startTicks = {0, 1, LEVEL_1 - 1, LEVEL_2 + 17, LEVEL_3 - 5};
+        long[] delays = {1, LEVEL_1 - 1, LEVEL_1, LEVEL_1 + 1, LEVEL_2 - 1, LEVEL_2, LEVEL_2 + 1,
+                LEVEL_3 - 1, LEVEL_3, LEVEL_3 + 1, MAX_DELAY};
+        for (long startTick : startTicks) {
+            TimerWheel wheel = new TimerWheel(startTick);
+            for (long delay : delays) {
+                wheel.schedule(delay, startTick + delay);
+            }
+            Map<Long, Long> expiries = advanceCollecting(wheel, startTick + MAX_DELAY + 1);
+            assertEquals(delays.length, expiries.size(), "start tick " + startTick);
+            for (long delay : delays) {
+                assertEquals(startTick + delay, expiries.get(delay), "start tick " + startTick);
+            }
+            assertEquals(0, wheel.size());
+        }
+    }
+
+    /**
+     * Checks timers scheduled on absolute deadlines from a wheel that already advanced, so their slots
+     * in the higher levels are not the ones right after the current tick.
+     */
+    @Test
+    public void expiresAtDeadlineAfterAdvancing() {
+        TimerWheel wheel = new TimerWheel(0);
+        wheel.advance(LEVEL_2 + LEVEL_1 + 3, key -> { });
+        long[] deadlines = {LEVEL_2 * 2, LEVEL_2 * 2 + 1, LEVEL_3, LEVEL_3 + LEVEL_2 + LEVEL_1 + 1};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+        Map<Long, Long> expiries = advanceCollecting(wheel, LEVEL_3 * 2);
+        for (long deadline : deadlines) {
+            assertEquals(deadline, expiries.get(deadline));
+        }
+    }
+
+    /**
+     * Checks that timers further than the wheel can hold are parked and placed again until they
+     * expire at their deadline.
+     */
+    @Test
+    public void expiresBeyondMaxDelay() {
+        long startTick = 42;
+        long[] delays = {MAX_DELAY + 1, MAX_DELAY + LEVEL_1 + 1, 3 * MAX_DELAY + 7};
+        TimerWheel wheel = new TimerWheel(startTick);
+        for (long delay : delays) {
+            wheel.schedule(delay, startTick + delay);
+        }
+        Map<Long, Long> expiries = advanceCollecting(wheel, startTick + 3 * MAX_DELAY + 8);
+        for (long delay : delays) {
+            assertEquals(startTick + delay, expiries.get(delay));
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * Checks that a deadline that is not after the current tick expires on the next tick.
+     */
+    @Test
+    public void pastDeadlineExpiresOnNextTick() {
+        TimerWheel wheel = new TimerWheel(100);
+        wheel.schedule(1, 100);
+        wheel.schedule(2, 3);
+        Map<Long, Long> expiries = advanceCollecting(wheel, 101);
+        assertEquals(101L, expiries.get(1L));
+        assertEquals(101L, expiries.get(2L));
+    }
+
+    /**
+     * Checks that a key scheduled twice expires twice, since timers cannot be cancelled.
+     */
+    @Test
+    public void rescheduledKeyExpiresTwice() {
+        TimerWheel wheel = new TimerWheel(0);
+        wheel.schedule(7, 10);
+        wheel.schedule(7, 20);
+        assertEquals(2, wheel.size());
+        int[] expired = new int[1];
+        wheel.advance(20, key -> expired[0]++);
+        assertEquals(2, expired[0]);
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * Advances a wheel to the given tick, and returns the tick at which each key expired.
+     */
+    private static Map<Long, Long> advanceCollecting(TimerWheel wheel, long tick) {
+        HashMap<Long, Long> expiries = new HashMap<>();
+        wheel.advance(tick, key -> expiries.put(key, wheel.getCurrentTick()));
+        return expiries;
+    }
+}
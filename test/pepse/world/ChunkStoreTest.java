@@ -0,0 +1,109 @@
+package pepse.world;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests that {@link ChunkStore} reads back the records it wrote, and reports a missing, corrupt or
+ * stale file as a miss.
+ *
+ * @author fanteo12
+ */
+public class ChunkStoreTest {
+
+    // constants
+    private static final int SEED = 12;
+    private static final int FINGERPRINT = 0x1234;
+    private static final int CHUNK = 7;
+    private static final ChunkRecord RECORD = new ChunkRecord(new float[]{450, 480.5f, 510},
+            new float[]{5460, 5610}, new int[]{0x102030, 0x405060, 0x708090});
+
+    @TempDir
+    private Path directory;
+
+    /**
+     * Checks a record survives a save and a load, and a second save replaces it.
+     */
+    @Test
+    public void roundTrip() {
+        ChunkStore store = new ChunkStore(directory, SEED, FINGERPRINT);
+        store.save(CHUNK, RECORD);
+        assertRecordEquals(RECORD, store.load(CHUNK));
+
+        ChunkRecord empty = new ChunkRecord(new float[]{420}, new float[0], new int[0]);
+        store.save(CHUNK, empty);
+        assertRecordEquals(empty, store.load(CHUNK));
+    }
+
+    /**
+     * Checks a missing file, a file with a flipped byte, a truncated file and a file shorter than its
+     * header are misses.
+     */
+    @Test
+    public void corruptFileIsMiss() throws IOException {
+        ChunkStore store = new ChunkStore(directory, SEED, FINGERPRINT);
+        assertNull(store.load(CHUNK));
+        store.save(CHUNK, RECORD);
+        Path file = onlyFile();
+        byte[] bytes = Files.readAllBytes(file);
+
+        byte[] flipped = bytes.clone();
+        flipped[flipped.length - 1] ^= 1;
+        Files.write(file, flipped);
+        assertNull(store.load(CHUNK));
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertNull(store.load(CHUNK));
+
+        Files.write(file, Arrays.copyOf(bytes, 3));
+        assertNull(store.load(CHUNK));
+
+        Files.write(file, bytes);
+        assertNotNull(store.load(CHUNK));
+    }
+
+    /**
+     * Checks a file written with other generation parameters, or for another chunk, is a miss.
+     */
+    @Test
+    public void staleFileIsMiss() throws IOException {
+        new ChunkStore(directory, SEED, FINGERPRINT).save(CHUNK, RECORD);
+        assertNull(new ChunkStore(directory, SEED, FINGERPRINT + 1).load(CHUNK));
+
+        Path file = onlyFile();
+        Files.copy(file, file.resolveSibling(file.getFileName().toString()
+                .replace("_" + CHUNK + ".", "_" + (CHUNK + 1) + ".")));
+        assertNull(new ChunkStore(directory, SEED, FINGERPRINT).load(CHUNK + 1));
+    }
+
+    /**
+     * Asserts two records hold the same arrays.
+     */
+    private static void assertRecordEquals(ChunkRecord expected, ChunkRecord actual) {
+        assertNotNull(actual);
+        assertArrayEquals(expected.getColumnHeights(), actual.getColumnHeights());
+        assertArrayEquals(expected.getTreeLocations(), actual.getTreeLocations());
+        assertArrayEquals(expected.getBlockColors(), actual.getBlockColors());
+    }
+
+    /**
+     * Returns the only file in the directory.
+     */
+    private Path onlyFile() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.reduce((a, b) -> {
+                throw new IllegalStateException("More than one file");
+            }).orElseThrow();
+        }
+    }
+}
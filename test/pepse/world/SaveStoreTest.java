@@ -0,0 +1,158 @@
+package pepse.world;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link SaveStore} reads back the world and chunk deltas it wrote, and reads a missing,
+ * corrupt or foreign file as no change at all.
+ *
+ * @author fanteo12
+ */
+public class SaveStoreTest {
+
+    // constants
+    private static final int SEED = 12;
+    private static final int CHUNK = -3;
+    private static final int[] EATEN = {0, 5, 63, 64, 130};
+    private static final String WORLD_FILE = "world.bin";
+
+    @TempDir
+    private Path directory;
+
+    /**
+     * Checks the eaten fruits and regrowth times of a chunk survive a save and a load.
+     */
+    @Test
+    public void chunkDeltaRoundTrip() {
+        SaveStore store = new SaveStore(directory, SEED);
+        assertTrue(store.saveChunk(CHUNK, eatenDelta()));
+
+        ChunkDelta loaded = store.loadChunk(CHUNK);
+        assertEquals(EATEN.length, loaded.getEatenCount());
+        for (int fruit : EATEN) {
+            assertTrue(loaded.isEaten(fruit));
+            assertEquals(regrowthTimeOf(fruit), loaded.getRegrowthTime(fruit));
+        }
+        assertFalse(loaded.isEaten(1));
+        assertFalse(loaded.isDirty());
+    }
+
+    /**
+     * Checks saving a delta with no eaten fruit deletes the file of the chunk.
+     */
+    @Test
+    public void emptyDeltaDeletesFile() throws IOException {
+        SaveStore store = new SaveStore(directory, SEED);
+        store.saveChunk(CHUNK, eatenDelta());
+        ChunkDelta delta = store.loadChunk(CHUNK);
+        for (int fruit : EATEN) {
+            delta.clear(fruit);
+        }
+        assertTrue(store.saveChunk(CHUNK, delta));
+        assertFalse(delta.isDirty());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+        assertEquals(0, store.loadChunk(CHUNK).getEatenCount());
+    }
+
+    /**
+     * Checks a delta file with a flipped byte, a truncated delta file and a missing one read as empty.
+     */
+    @Test
+    public void corruptChunkReadsAsEmpty() throws IOException {
+        SaveStore store = new SaveStore(directory, SEED);
+        store.saveChunk(CHUNK, eatenDelta());
+        Path file = onlyFile();
+        byte[] bytes = Files.readAllBytes(file);
+
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+        assertEquals(0, store.loadChunk(CHUNK).getEatenCount());
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+        assertEquals(0, store.loadChunk(CHUNK).getEatenCount());
+
+        Files.delete(file);
+        assertEquals(0, store.loadChunk(CHUNK).getEatenCount());
+    }
+
+    /**
+     * Checks the delta of one chunk is not read as the delta of another chunk or another seed.
+     */
+    @Test
+    public void foreignChunkReadsAsEmpty() throws IOException {
+        new SaveStore(directory, SEED).saveChunk(CHUNK, eatenDelta());
+        Path file = onlyFile();
+        Path otherChunk = file.resolveSibling(file.getFileName().toString()
+                .replace("_" + CHUNK + ".", "_" + (CHUNK + 1) + "."));
+        Files.copy(file, otherChunk);
+        assertEquals(0, new SaveStore(directory, SEED).loadChunk(CHUNK + 1).getEatenCount());
+        assertEquals(0, new SaveStore(directory, SEED + 1).loadChunk(CHUNK).getEatenCount());
+    }
+
+    /**
+     * Checks the world state survives a save and a load, and a corrupt world file reads as none.
+     */
+    @Test
+    public void worldRoundTripAndCorruption() throws IOException {
+        SaveStore store = new SaveStore(directory, SEED);
+        assertTrue(store.saveWorld(new SaveStore.WorldState(SEED, 123.5, 10, -20, 42)));
+
+        SaveStore.WorldState state = SaveStore.loadWorld(directory);
+        assertNotNull(state);
+        assertEquals(SEED, state.getSeed());
+        assertEquals(123.5, state.getClock());
+        assertEquals(10, state.getAvatarX());
+        assertEquals(-20, state.getAvatarY());
+        assertEquals(42, state.getEnergy());
+
+        Path file = directory.resolve(WORLD_FILE);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+        assertNull(SaveStore.loadWorld(directory));
+    }
+
+    /**
+     * Returns a delta in which the fruits of EATEN are eaten.
+     */
+    private static ChunkDelta eatenDelta() {
+        ChunkDelta delta = new ChunkDelta();
+        for (int fruit : EATEN) {
+            delta.markEaten(fruit, regrowthTimeOf(fruit));
+        }
+        return delta;
+    }
+
+    /**
+     * Returns the regrowth time the tests give a fruit.
+     */
+    private static double regrowthTimeOf(int fruit) {
+        return 30.25 + fruit;
+    }
+
+    /**
+     * Returns the only file in the directory.
+     */
+    private Path onlyFile() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.reduce((a, b) -> {
+                throw new IllegalStateException("More than one file");
+            }).orElseThrow();
+        }
+    }
+}